@@ -0,0 +1,59 @@
+package com.jpv.beerStock.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * Storefront-like lookups: 80% of the reads hit 10% of a 10k catalogue. Run
+ * with -prof gc to compare allocation as well as the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerCacheBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(Collections.singletonMap("beerstock.cache.enabled", cacheEnabled));
+        beerService = context.getBean(BeerService.class);
+        BenchmarkContexts.populate(beerService, ROWS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BeerDTO findByName() throws BeerNotFoundException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(10) < 8 ? random.nextInt(ROWS / 10) : random.nextInt(ROWS);
+        return beerService.findByName(BenchmarkContexts.name(index));
+    }
+}
@@ -0,0 +1,73 @@
+package com.jpv.beerStock.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.mappers.BeerMapper;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * Reads through managed entities mapped to DTOs against constructor queries
+ * selecting DTOs directly. Run with {@code -prof gc} for allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerReadPathBenchmark {
+
+    @Param({"entity", "dto"})
+    private String path;
+
+    @Param({"1000"})
+    private int rows;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private ConfigurableApplicationContext context;
+    private BeerRepository beerRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(Collections.singletonMap("beerstock.cache.enabled", false));
+        beerRepository = context.getBean(BeerRepository.class);
+        BenchmarkContexts.populate(context.getBean(BeerService.class), rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerDTO findByName() {
+        String name = BenchmarkContexts.name(ThreadLocalRandom.current().nextInt(rows));
+        if ("entity".equals(path)) {
+            return beerRepository.findByName(name).map(beerMapper::toDTO).orElse(null);
+        }
+        return beerRepository.findDTOByName(name).orElse(null);
+    }
+
+    @Benchmark
+    public List<BeerDTO> listAll() {
+        if ("entity".equals(path)) {
+            return beerRepository.findAll().stream().map(beerMapper::toDTO).collect(Collectors.toList());
+        }
+        return beerRepository.findAllDTOs();
+    }
+}
@@ -0,0 +1,85 @@
+package com.jpv.beerStock.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.services.BeerSearchIndex;
+
+/**
+ * Catalogue search against the index alone, over names made of a style word,
+ * a house word and a serial, from 50 brands: a partial house word, a house
+ * word narrowed by brand, an exact serial and a word shared by a seventh of
+ * the catalogue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerSearchIndexBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final int BRANDS = 50;
+    private static final String[] STYLES = { "Golden", "Amber", "Dark", "Hazy", "Crisp", "Smoked", "Sour", "Imperial" };
+    private static final String[] HOUSES = new String[2000];
+
+    static {
+        for (int i = 0; i < HOUSES.length; i++) {
+            HOUSES[i] = "House" + Integer.toString(i, Character.MAX_RADIX);
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private BeerSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        searchIndex = new BeerSearchIndex(null);
+        BeerType[] types = BeerType.values();
+        List<BeerDTO> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            String name = STYLES[i % STYLES.length] + " " + HOUSES[(i / STYLES.length) % HOUSES.length] + " " + i;
+            chunk.add(new BeerDTO((long) i + 1, name, "Brewery " + (i % BRANDS), 100, 0, types[i % types.length]));
+            if (chunk.size() == 10_000) {
+                searchIndex.add(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        searchIndex.add(chunk);
+    }
+
+    @Benchmark
+    public List<BeerSearchHitDTO> partialHouseWord() {
+        return searchIndex.search(HOUSES[ThreadLocalRandom.current().nextInt(HOUSES.length)].substring(0, 6), LIMIT);
+    }
+
+    @Benchmark
+    public List<BeerSearchHitDTO> houseWordAndBrand() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return searchIndex.search(HOUSES[random.nextInt(HOUSES.length)] + " brewery " + random.nextInt(BRANDS), LIMIT);
+    }
+
+    @Benchmark
+    public List<BeerSearchHitDTO> exactSerial() {
+        return searchIndex.search(Integer.toString(ThreadLocalRandom.current().nextInt(rows)), LIMIT);
+    }
+
+    @Benchmark
+    public List<BeerSearchHitDTO> sharedTypeWord() {
+        return searchIndex.search("stout", LIMIT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.jpv.beerStock.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeerServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private Long hotBeerId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start(Collections.singletonMap("beerstock.cache.enabled", false));
+        beerService = context.getBean(BeerService.class);
+        BenchmarkContexts.populate(beerService, rows);
+        // max far above what a trial can add, so increments never hit the limit
+        Beer hotBeer = new Beer(null, "Hot Lager", "Ambev", Integer.MAX_VALUE, 0, BeerType.LAGER, 0, 0L);
+        hotBeerId = context.getBean(BeerRepository.class).save(hotBeer).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDTO> listAll() {
+        return beerService.listAll();
+    }
+
+    @Benchmark
+    public BeerDTO findByName() throws BeerNotFoundException {
+        return beerService.findByName(BenchmarkContexts.name(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BeerDTO incrementHotBeer() throws BeerNotFoundException, BeerStockExceededException {
+        return beerService.increment(hotBeerId, 1);
+    }
+}
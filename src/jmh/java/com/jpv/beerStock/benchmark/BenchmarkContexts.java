@@ -0,0 +1,116 @@
+package com.jpv.beerStock.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.BeerStockApplication;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * Boots the application against its own in-memory H2 database, so each
+ * benchmark trial starts from a known catalogue, unless the properties give a
+ * null {@code spring.datasource.url}.
+ */
+final class BenchmarkContexts {
+
+    private static final int INSERT_CHUNK = 1000;
+    // only on the classpath with -P benchmarks,reactive
+    private static final String REACTIVE_APPLICATION = "com.jpv.beerStock.reactive.ReactiveBeerStockApplication";
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        return start(BeerStockApplication.class, WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Boots the application with Tomcat on a random port, read back from
+     * {@code local.server.port}.
+     */
+    static ConfigurableApplicationContext startWeb(Map<String, Object> properties) {
+        Map<String, Object> webProperties = new HashMap<>(properties);
+        webProperties.putIfAbsent("server.port", 0);
+        return start(BeerStockApplication.class, WebApplicationType.SERVLET, webProperties);
+    }
+
+    /**
+     * Boots the WebFlux + R2DBC variant with Netty on a random port, read back
+     * from {@code local.server.port}.
+     */
+    static ConfigurableApplicationContext startReactive(Map<String, Object> properties) {
+        Class<?> application;
+        try {
+            application = Class.forName(REACTIVE_APPLICATION);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The reactive stack is only built with -P benchmarks,reactive", e);
+        }
+        Map<String, Object> reactiveProperties = new HashMap<>(properties);
+        reactiveProperties.putIfAbsent("server.port", 0);
+        reactiveProperties.putIfAbsent("spring.profiles.active", "reactive");
+        // the reactive stack has no DataSource and keeps its database in spring.r2dbc.url
+        reactiveProperties.put("spring.datasource.url", null);
+        return start(application, WebApplicationType.REACTIVE, reactiveProperties);
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, WebApplicationType webApplicationType,
+            Map<String, Object> properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> allProperties = new HashMap<>();
+        allProperties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=LEGACY;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        allProperties.put("spring.main.banner-mode", "off");
+        allProperties.put("logging.level.root", "WARN");
+        allProperties.putAll(properties);
+        // a null value drops one of the defaults above
+        allProperties.values().removeIf(Objects::isNull);
+        // as arguments rather than default properties, which application.properties would override
+        String[] args = allProperties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(webApplicationType)
+                .run(args);
+        // a trial that silently runs another configuration would compare it with itself
+        allProperties.forEach((key, value) -> {
+            String resolved = context.getEnvironment().getProperty(key);
+            if (!String.valueOf(value).equals(resolved)) {
+                context.close();
+                throw new IllegalStateException(key + " resolved to " + resolved + " instead of " + value);
+            }
+        });
+        return context;
+    }
+
+    static void populate(BeerService beerService, int rows) {
+        List<BeerDTO> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < rows; i++) {
+            chunk.add(beer(i));
+            if (chunk.size() == INSERT_CHUNK) {
+                beerService.createBeers(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            beerService.createBeers(chunk);
+        }
+    }
+
+    static String name(int index) {
+        return "Beer " + index;
+    }
+
+    static BeerDTO beer(int index) {
+        BeerType[] types = BeerType.values();
+        return new BeerDTO((long) index, name(index), "Brand " + index % 100, 500, index % 400, types[index % types.length]);
+    }
+}
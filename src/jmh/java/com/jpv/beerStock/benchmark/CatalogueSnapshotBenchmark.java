@@ -0,0 +1,77 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+
+/**
+ * Full catalogue listings over HTTP, read from the database and serialized per
+ * request or copied from the catalogue snapshot, with and without gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class CatalogueSnapshotBenchmark {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    @Param({"database", "snapshot"})
+    private String source;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.snapshot.enabled", "snapshot".equals(source));
+        context = BenchmarkContexts.startWeb(properties);
+        BenchmarkContexts.populate(context.getBean(BeerService.class), rows);
+        context.getBean(CatalogueSnapshot.class).refresh();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + BEER_API_URL_PATH;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(baseUrl)).header("Accept-Encoding", encoding).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listBeers() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,154 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * The default in-memory database against the {@code persistent} profile's
+ * file-backed, migrated one: startup of an empty and of a populated
+ * datastore, and the throughput of point writes and batched movements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DatastoreBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int MOVEMENTS = 100;
+
+    @Param({"in-memory", "persistent"})
+    private String datastore;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("datastore");
+        context = start(datastore, directory);
+        beerService = context.getBean(BeerService.class);
+        BenchmarkContexts.populate(beerService, ROWS);
+        ids = new ArrayList<>(ROWS);
+        beerService.streamAll(beer -> ids.add(beer.getId()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BeerDTO incrementRandomBeer() throws BeerNotFoundException, BeerStockExceededException {
+        try {
+            return beerService.increment(randomId(), 1);
+        } catch (BeerStockExceededException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object applyMovementBatch() {
+        List<StockMovementDTO> movements = new ArrayList<>(MOVEMENTS);
+        for (int i = 0; i < MOVEMENTS; i++) {
+            movements.add(new StockMovementDTO(randomId(), i % 2 == 0 ? 1 : -1));
+        }
+        return beerService.applyStockMovements(movements);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void startEmpty(Startup startup, Blackhole blackhole) {
+        try (ConfigurableApplicationContext started = start(datastore, startup.directory)) {
+            blackhole.consume(started.getBean(BeerService.class));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void restartPopulated(Startup startup, Blackhole blackhole) {
+        // the in-memory datastore starts empty again; the persistent one reopens ROWS beers
+        try (ConfigurableApplicationContext started = start(datastore, startup.populatedDirectory)) {
+            blackhole.consume(started.getBean(BeerService.class));
+        }
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static ConfigurableApplicationContext start(String datastore, Path directory) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.cache.enabled", false);
+        if ("persistent".equals(datastore)) {
+            properties.put("spring.profiles.active", "persistent");
+            properties.put("beerstock.datastore.directory", directory);
+            properties.put("spring.datasource.url", null);
+        }
+        return BenchmarkContexts.start(properties);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Startup {
+
+        private Path directory;
+        private Path populatedDirectory;
+
+        @Setup(Level.Trial)
+        public void populate(DatastoreBenchmark benchmark) throws IOException {
+            populatedDirectory = Files.createTempDirectory("datastore-populated");
+            try (ConfigurableApplicationContext context = start(benchmark.datastore, populatedDirectory)) {
+                BenchmarkContexts.populate(context.getBean(BeerService.class), ROWS);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void emptyDirectory() throws IOException {
+            directory = Files.createTempDirectory("datastore-empty");
+        }
+
+        @TearDown(Level.Invocation)
+        public void deleteEmptyDirectory() {
+            FileSystemUtils.deleteRecursively(directory.toFile());
+        }
+
+        @TearDown(Level.Trial)
+        public void deletePopulated() {
+            FileSystemUtils.deleteRecursively(populatedDirectory.toFile());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * A lookup workload where most names are not in the catalogue, answered by
+ * the problem handler or, with it switched off, by {@code @ResponseStatus}
+ * and the servlet error page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ErrorPathBenchmark {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final int ROWS = 1000;
+
+    @Param({"problem", "response-status"})
+    private String errorResponses;
+
+    // share of the lookups that miss
+    @Param({"90"})
+    private int missPercent;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.problem-details.enabled", "problem".equals(errorResponses));
+        context = BenchmarkContexts.startWeb(properties);
+        BenchmarkContexts.populate(context.getBean(BeerService.class), ROWS);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + BEER_API_URL_PATH;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByName() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean miss = random.nextInt(100) < missPercent;
+        String name = miss ? "Missing " + random.nextInt(ROWS) : BenchmarkContexts.name(random.nextInt(ROWS));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + name.replace(" ", "%20"))).build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != (miss ? 404 : 200)) {
+            throw new IllegalStateException("Unexpected status " + status + " for " + request.uri());
+        }
+        return status;
+    }
+}
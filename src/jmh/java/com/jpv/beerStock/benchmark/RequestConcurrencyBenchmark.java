@@ -0,0 +1,103 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * End-to-end HTTP load with more concurrent clients than Tomcat has worker
+ * threads. The virtual mode needs a Java 21 runtime, see {@code jmh.java}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(400)
+public class RequestConcurrencyBenchmark {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    @Param({"platform", "virtual"})
+    private String requestThreads;
+
+    // worker ceiling of the platform mode; ignored once requests run on virtual threads
+    @Param("50")
+    private int tomcatMaxThreads;
+
+    @Param("1000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private URI incrementHotBeerUri;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.cache.enabled", false);
+        properties.put("beerstock.virtual-threads.enabled", "virtual".equals(requestThreads));
+        properties.put("server.tomcat.threads.max", tomcatMaxThreads);
+        properties.put("server.tomcat.max-connections", 10_000);
+        properties.put("spring.jpa.open-in-view", false);
+        context = BenchmarkContexts.startWeb(properties);
+        BenchmarkContexts.populate(context.getBean(BeerService.class), rows);
+        Beer hotBeer = new Beer(null, "Hot Lager", "Ambev", Integer.MAX_VALUE, 0, BeerType.LAGER, 0, 0L);
+        Long hotBeerId = context.getBean(BeerRepository.class).save(hotBeer).getId();
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + BEER_API_URL_PATH;
+        incrementHotBeerUri = URI.create(baseUrl + "/" + hotBeerId + "/increment");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByName() throws IOException, InterruptedException {
+        String name = BenchmarkContexts.name(ThreadLocalRandom.current().nextInt(rows)).replace(" ", "%20");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + name)).build();
+        return send(request);
+    }
+
+    @Benchmark
+    public int incrementHotBeer() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(incrementHotBeerUri)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                .build();
+        return send(request);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected status " + status + " for " + request.uri());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,79 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jpv.beerStock.dto.BeerDTO;
+
+/**
+ * The whole catalogue as each response format of {@code GET /api/v1/beers},
+ * with and without the gzip Tomcat applies above the size threshold. The
+ * payload size of each combination is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResponseFormatBenchmark {
+
+    @Param({"10000", "100000"})
+    private int beers;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private ObjectWriter listWriter;
+    private List<BeerDTO> beerDTOs;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper(factory(format));
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, BeerDTO.class));
+        beerDTOs = new ArrayList<>(beers);
+        for (int i = 0; i < beers; i++) {
+            beerDTOs.add(BenchmarkContexts.beer(i));
+        }
+        System.out.printf("%n%s/%s, %d beers: %d bytes%n", format, encoding, beers, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream body = "gzip".equals(encoding) ? new GZIPOutputStream(bytes) : bytes) {
+            listWriter.writeValue(body, beerDTOs);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
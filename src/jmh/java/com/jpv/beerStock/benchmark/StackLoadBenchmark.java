@@ -0,0 +1,96 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The same {@code GET /api/v1/beers/{name}} load through the servlet stack and
+ * through the WebFlux + R2DBC variant. Needs {@code -P benchmarks,reactive},
+ * so both stacks run on the H2 1.4.200 that r2dbc-h2 requires.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(256)
+public class StackLoadBenchmark {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final String R2DBC_AUTO_CONFIGURATIONS = String.join(",",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration");
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param("1000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.cache.enabled", false);
+        if ("reactive".equals(stack)) {
+            context = BenchmarkContexts.startReactive(properties);
+        } else {
+            // H2 1.4 has no LEGACY mode
+            properties.put("spring.datasource.url", "jdbc:h2:mem:servlet-load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+            properties.put("spring.autoconfigure.exclude", R2DBC_AUTO_CONFIGURATIONS);
+            context = BenchmarkContexts.startWeb(properties);
+        }
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + BEER_API_URL_PATH;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // through the API, so both stacks are populated the same way
+        for (int i = 0; i < rows; i++) {
+            String beer = String.format("{\"name\":\"%s\",\"brand\":\"Load\",\"max\":500,\"quantity\":50,\"type\":\"LAGER\"}",
+                    BenchmarkContexts.name(i));
+            send(HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(beer))
+                    .build(), 201);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByName() throws IOException, InterruptedException {
+        String name = BenchmarkContexts.name(ThreadLocalRandom.current().nextInt(rows)).replace(" ", "%20");
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + name)).build(), 200);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expectedStatus) {
+            throw new IllegalStateException("Unexpected status " + status + " for " + request.uri());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jpv.beerStock.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+
+/**
+ * Increments on one hot beer, applied directly as conditional updates or
+ * acknowledged from the write-behind engine's log, with and without fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StockEngineBenchmark {
+
+    @Param({"direct", "write-behind", "write-behind-nofsync"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private Path walDirectory;
+    private Long hotBeerId;
+
+    @Setup
+    public void setUp() throws IOException {
+        walDirectory = Files.createTempDirectory("stock-wal");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("beerstock.cache.enabled", false);
+        properties.put("beerstock.stock-engine.enabled", !"direct".equals(engine));
+        properties.put("beerstock.stock-engine.fsync", !"write-behind-nofsync".equals(engine));
+        properties.put("beerstock.stock-engine.wal-directory", walDirectory.toString());
+        context = BenchmarkContexts.start(properties);
+        beerService = context.getBean(BeerService.class);
+        // max far above what a trial can add, so increments never hit the limit
+        Beer hotBeer = new Beer(null, "Hot Lager", "Ambev", Integer.MAX_VALUE, 0, BeerType.LAGER, 0, 0L);
+        hotBeerId = context.getBean(BeerRepository.class).save(hotBeer).getId();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(walDirectory);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BeerDTO incrementHotBeer() throws BeerNotFoundException, BeerStockExceededException {
+        return beerService.increment(hotBeerId, 1);
+    }
+}
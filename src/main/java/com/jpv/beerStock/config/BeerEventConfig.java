@@ -0,0 +1,22 @@
+package com.jpv.beerStock.config;
+
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.jpv.beerStock.services.BeerEventBus;
+
+@Configuration
+@EnableConfigurationProperties(BeerEventProperties.class)
+public class BeerEventConfig {
+
+    @Bean(destroyMethod = "close")
+    public BeerEventBus beerEventBus(BeerEventProperties properties) {
+        return new BeerEventBus(properties.getHistorySize(), properties.getSubscriberBuffer(), properties.getOverflow(),
+                properties.getStreamTimeout(),
+                Executors.newFixedThreadPool(properties.getSenderThreads(), new CustomizableThreadFactory("beer-events-")));
+    }
+}
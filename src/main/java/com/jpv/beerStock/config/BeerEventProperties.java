@@ -0,0 +1,26 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.events")
+public class BeerEventProperties {
+
+    /** Events kept for clients resuming with Last-Event-ID. */
+    private int historySize = 1024;
+
+    /** Events queued for one subscriber before the overflow policy applies. */
+    private int subscriberBuffer = 256;
+
+    private EventOverflowPolicy overflow = EventOverflowPolicy.DISCONNECT;
+
+    private int senderThreads = 4;
+
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,29 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerSearchIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(BeerSearchProperties.class)
+public class BeerSearchConfig {
+
+    @Bean(initMethod = "rebuild")
+    public BeerSearchIndex beerSearchIndex(BeerSearchProperties properties, BeerRepository beerRepository,
+            MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return BeerSearchIndex.disabled();
+        }
+        BeerSearchIndex searchIndex = new BeerSearchIndex(beerRepository);
+        Gauge.builder("beerstock.search.indexed", searchIndex, BeerSearchIndex::size)
+                .description("Beers in the search index")
+                .register(meterRegistry);
+        return searchIndex;
+    }
+}
@@ -0,0 +1,13 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.search")
+public class BeerSearchProperties {
+
+    /** Off, the catalogue search finds nothing and the index takes no memory. */
+    private boolean enabled = true;
+}
@@ -0,0 +1,34 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.services.BeerCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+@EnableConfigurationProperties(BeerCacheProperties.class)
+public class CacheConfig {
+
+    private static final String BEERS_BY_NAME_CACHE = "beersByName";
+
+    @Bean
+    public BeerCache beerCache(BeerCacheProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return BeerCache.disabled();
+        }
+        Cache<String, BeerDTO> beersByName = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, beersByName, BEERS_BY_NAME_CACHE);
+        return new BeerCache(beersByName);
+    }
+}
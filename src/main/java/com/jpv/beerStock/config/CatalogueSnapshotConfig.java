@@ -0,0 +1,26 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(CatalogueSnapshotProperties.class)
+public class CatalogueSnapshotConfig {
+
+    @Bean(initMethod = "refresh")
+    public CatalogueSnapshot catalogueSnapshot(CatalogueSnapshotProperties properties, BeerService beerService,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return CatalogueSnapshot.disabled();
+        }
+        return new CatalogueSnapshot(beerService::catalogueETag, beerService::listAll, objectMapper,
+                properties.getMaxStaleness(), meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.snapshot")
+public class CatalogueSnapshotProperties {
+
+    private boolean enabled = false;
+
+    /** How far behind the catalogue a listing may be before it is read from the database instead. */
+    private Duration maxStaleness = Duration.ofSeconds(5);
+}
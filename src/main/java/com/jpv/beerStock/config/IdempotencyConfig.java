@@ -0,0 +1,33 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.services.IdempotencyStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    private static final String IDEMPOTENCY_CACHE = "idempotencyKeys";
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return IdempotencyStore.disabled();
+        }
+        Cache<String, IdempotencyStore.Execution> executions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, IDEMPOTENCY_CACHE);
+        return new IdempotencyStore(executions, properties.getInFlightTimeout(), meterRegistry);
+    }
+}
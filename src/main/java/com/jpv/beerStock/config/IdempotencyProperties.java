@@ -0,0 +1,21 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 100_000;
+
+    // how long a result is replayed; retries come within minutes of the first request
+    private Duration ttl = Duration.ofHours(1);
+
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+}
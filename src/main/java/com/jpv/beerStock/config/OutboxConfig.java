@@ -0,0 +1,42 @@
+package com.jpv.beerStock.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.enums.OutboxSinkType;
+import com.jpv.beerStock.repositories.OutboxEventRepository;
+import com.jpv.beerStock.services.FileOutboxSink;
+import com.jpv.beerStock.services.LocalMessageBroker;
+import com.jpv.beerStock.services.OutboxSink;
+import com.jpv.beerStock.services.StockOutbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties properties) throws IOException {
+        if (!properties.isEnabled()) {
+            return OutboxSink.disabled();
+        }
+        if (properties.getSink() == OutboxSinkType.FILE) {
+            return new FileOutboxSink(properties.getFile());
+        }
+        return new LocalMessageBroker(properties.getLocalCapacity());
+    }
+
+    @Bean
+    public StockOutbox stockOutbox(OutboxProperties properties, OutboxEventRepository outboxRepository,
+            OutboxSink outboxSink, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return StockOutbox.disabled();
+        }
+        return new StockOutbox(outboxRepository, outboxSink, objectMapper, properties.getBatchSize(), meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.jpv.beerStock.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.jpv.beerStock.enums.OutboxSinkType;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = false;
+
+    private int batchSize = 500;
+
+    private OutboxSinkType sink = OutboxSinkType.LOCAL;
+
+    /** Events the local broker holds before it rejects batches. */
+    private int localCapacity = 10_000;
+
+    private Path file = Paths.get("data", "outbox.ndjson");
+}
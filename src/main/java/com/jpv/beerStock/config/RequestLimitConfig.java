@@ -0,0 +1,56 @@
+package com.jpv.beerStock.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.controller.RequestLimitFilter;
+import com.jpv.beerStock.enums.RequestCost;
+import com.jpv.beerStock.services.AdaptiveConcurrencyLimit;
+import com.jpv.beerStock.services.ClientRateLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "beerstock.limits.enabled", havingValue = "true")
+@EnableConfigurationProperties(RequestLimitProperties.class)
+public class RequestLimitConfig {
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(RequestLimitProperties properties) {
+        Map<RequestCost, ClientRateLimiter.Budget> budgets = new EnumMap<>(RequestCost.class);
+        budgets.put(RequestCost.LIST, budget(properties.getList()));
+        budgets.put(RequestCost.LOOKUP, budget(properties.getLookup()));
+        budgets.put(RequestCost.WRITE, budget(properties.getWrite()));
+        return new ClientRateLimiter(Caffeine.newBuilder().maximumSize(properties.getMaximumClients()).build(), budgets);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(RequestLimitProperties properties) {
+        RequestLimitProperties.Concurrency concurrency = properties.getConcurrency();
+        return new AdaptiveConcurrencyLimit(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                concurrency.getMaxLimit(), concurrency.getLatencyThreshold().toNanos());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestLimitFilter> requestLimitFilter(RequestLimitProperties properties,
+            ClientRateLimiter clientRateLimiter, AdaptiveConcurrencyLimit adaptiveConcurrencyLimit,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        RequestLimitFilter filter = new RequestLimitFilter(clientRateLimiter, adaptiveConcurrencyLimit,
+                properties.getClientHeader(), objectMapper, meterRegistry);
+        FilterRegistrationBean<RequestLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/beers/*");
+        return registration;
+    }
+
+    private static ClientRateLimiter.Budget budget(RequestLimitProperties.Budget budget) {
+        return new ClientRateLimiter.Budget(budget.getPerSecond(), budget.getBurst());
+    }
+}
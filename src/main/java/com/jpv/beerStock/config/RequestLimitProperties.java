@@ -0,0 +1,53 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@ConfigurationProperties("beerstock.limits")
+public class RequestLimitProperties {
+
+    private boolean enabled = false;
+
+    /** Header naming the API client; requests without it are keyed by remote address. */
+    private String clientHeader = "X-Client-Id";
+
+    /** Clients whose buckets are kept; idle ones are dropped first. */
+    private long maximumClients = 100_000;
+
+    private Budget list = new Budget(5, 10);
+
+    private Budget lookup = new Budget(100, 200);
+
+    private Budget write = new Budget(50, 100);
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+
+        private double perSecond;
+
+        private int burst;
+    }
+
+    @Data
+    public static class Concurrency {
+
+        private int initialLimit = 50;
+
+        private int minLimit = 10;
+
+        private int maxLimit = 200;
+
+        /** Responses slower than this shrink the limit. */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+    }
+}
@@ -0,0 +1,82 @@
+package com.jpv.beerStock.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.LoggingAlertSink;
+import com.jpv.beerStock.services.SseAlertSink;
+import com.jpv.beerStock.services.StockAlertEngine;
+import com.jpv.beerStock.services.StockAlertRules;
+import com.jpv.beerStock.services.StockAlertSink;
+import com.jpv.beerStock.services.WebhookAlertSink;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(StockAlertProperties.class)
+public class StockAlertConfig {
+
+    @Bean
+    public SseAlertSink sseAlertSink(StockAlertProperties properties) {
+        return new SseAlertSink(properties.getStreamTimeout());
+    }
+
+    @Bean
+    public WebhookAlertSink webhookAlertSink(StockAlertProperties properties, ObjectMapper objectMapper) {
+        return new WebhookAlertSink(properties.getWebhookCapacity(), objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    public StockAlertEngine stockAlertEngine(StockAlertProperties properties, BeerService beerService,
+            BeerEventBus beerEventBus, SseAlertSink sseAlertSink, WebhookAlertSink webhookAlertSink,
+            MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return StockAlertEngine.disabled();
+        }
+        List<StockAlertSink> sinks = properties.getSinks().stream()
+                .distinct()
+                .map(type -> {
+                    switch (type) {
+                        case WEBHOOK:
+                            return webhookAlertSink;
+                        case SSE:
+                            return sseAlertSink;
+                        default:
+                            return new LoggingAlertSink();
+                    }
+                })
+                .collect(Collectors.toList());
+        StockAlertEngine engine = new StockAlertEngine(rules(properties), beerService::findAllByIds, sinks,
+                properties.getHysteresisPercent(), properties.getDedupWindow(),
+                Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stock-alerts-")), System::nanoTime,
+                meterRegistry);
+        beerEventBus.addListener(engine::onEvents);
+        return engine;
+    }
+
+    private static StockAlertRules rules(StockAlertProperties properties) {
+        return new StockAlertRules(thresholds(properties.getDefaults()), thresholds(properties.getBeers()),
+                thresholds(properties.getBrands()), thresholds(properties.getTypes()));
+    }
+
+    private static <K> Map<K, StockAlertRules.Thresholds> thresholds(Map<K, StockAlertProperties.Thresholds> byKey) {
+        Map<K, StockAlertRules.Thresholds> converted = new HashMap<>();
+        byKey.forEach((key, thresholds) -> converted.put(key, thresholds(thresholds)));
+        return converted;
+    }
+
+    private static StockAlertRules.Thresholds thresholds(StockAlertProperties.Thresholds thresholds) {
+        return new StockAlertRules.Thresholds(thresholds.getLowPercent(), thresholds.getNearMaxPercent());
+    }
+}
@@ -0,0 +1,57 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockAlertSinkType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@ConfigurationProperties("beerstock.alerts")
+public class StockAlertProperties {
+
+    private boolean enabled = false;
+
+    private Thresholds defaults = new Thresholds(10, 90);
+
+    /** By beer name, e.g. {@code beers[Brahma Chopp].low-percent}. */
+    private Map<String, Thresholds> beers = new HashMap<>();
+
+    private Map<String, Thresholds> brands = new HashMap<>();
+
+    private Map<BeerType, Thresholds> types = new HashMap<>();
+
+    /** Percentage of max the quantity must move back past a threshold before its alert resolves. */
+    private int hysteresisPercent = 5;
+
+    /** An alert firing again this soon after the last one sent for the beer is not sent. */
+    private Duration dedupWindow = Duration.ofMinutes(10);
+
+    private List<StockAlertSinkType> sinks = Arrays.asList(StockAlertSinkType.LOG, StockAlertSinkType.SSE);
+
+    /** Webhook bodies the stand-in keeps before dropping the oldest. */
+    private int webhookCapacity = 1000;
+
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Thresholds {
+
+        /** Alert when the quantity falls below this percentage of max. */
+        private Integer lowPercent;
+
+        /** Alert when the quantity reaches this percentage of max. */
+        private Integer nearMaxPercent;
+    }
+}
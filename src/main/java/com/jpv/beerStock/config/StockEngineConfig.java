@@ -0,0 +1,26 @@
+package com.jpv.beerStock.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerCache;
+import com.jpv.beerStock.services.BeerStockUpdater;
+import com.jpv.beerStock.services.StockCounterEngine;
+import com.jpv.beerStock.services.StockWriteAheadLog;
+
+@Configuration
+@EnableConfigurationProperties(StockEngineProperties.class)
+public class StockEngineConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public StockCounterEngine stockCounterEngine(StockEngineProperties properties, BeerRepository beerRepository,
+            BeerStockUpdater beerStockUpdater, BeerCache beerCache) {
+        if (!properties.isEnabled()) {
+            return StockCounterEngine.disabled();
+        }
+        StockWriteAheadLog writeAheadLog = new StockWriteAheadLog(properties.getWalDirectory(), properties.isFsync());
+        return new StockCounterEngine(beerRepository, beerStockUpdater, beerCache, writeAheadLog);
+    }
+}
@@ -0,0 +1,20 @@
+package com.jpv.beerStock.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.stock-engine")
+public class StockEngineProperties {
+
+    private boolean enabled = false;
+
+    private Path walDirectory = Paths.get("data", "stock-wal");
+
+    /** Without fsync a power loss can drop acknowledged increments; a process crash cannot. */
+    private boolean fsync = true;
+}
@@ -0,0 +1,39 @@
+package com.jpv.beerStock.config;
+
+import java.time.Clock;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jpv.beerStock.repositories.StockLedgerEntryRepository;
+import com.jpv.beerStock.repositories.StockLedgerRollupRepository;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.StockLedger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(StockLedgerProperties.class)
+public class StockLedgerConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean(destroyMethod = "close")
+    public StockLedger stockLedger(StockLedgerProperties properties, StockLedgerEntryRepository entryRepository,
+            StockLedgerRollupRepository rollupRepository, TransactionTemplate transactionTemplate,
+            BeerEventBus beerEventBus, Clock clock, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return StockLedger.disabled();
+        }
+        StockLedger ledger = new StockLedger(entryRepository, rollupRepository, transactionTemplate,
+                properties.getCapacity(), properties.getBatchSize(), properties.getRawRetention(),
+                properties.getHourlyRetention(), clock, meterRegistry);
+        beerEventBus.addListener(ledger::onEvents);
+        return ledger;
+    }
+}
@@ -0,0 +1,26 @@
+package com.jpv.beerStock.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("beerstock.ledger")
+public class StockLedgerProperties {
+
+    private boolean enabled = false;
+
+    /** Movements queued for the flush before new ones are dropped. */
+    private int capacity = 100_000;
+
+    /** Rows inserted, or folded by the compaction, per transaction. */
+    private int batchSize = 500;
+
+    /** Movements older than this are folded into hourly rollups. */
+    private Duration rawRetention = Duration.ofDays(7);
+
+    /** Hourly rollups older than this are folded into daily ones. */
+    private Duration hourlyRetention = Duration.ofDays(90);
+}
@@ -1,27 +1,62 @@
 package com.jpv.beerStock.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
 import com.jpv.beerStock.dto.QuantityDTO;
-import com.jpv.beerStock.exceptions.BeerAlreadyRegisteredException;
+import com.jpv.beerStock.dto.ReservationDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.dto.StockMovementsDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
 import com.jpv.beerStock.exceptions.BeerNotFoundException;
-import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockBusinessException;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.exceptions.InvalidCursorException;
+import com.jpv.beerStock.exceptions.ReservationNotFoundException;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.BeerImportService;
 import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+import com.jpv.beerStock.services.IdempotencyStore;
 
 import lombok.AllArgsConstructor;
 
@@ -30,22 +65,139 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    // clients may keep responses but must revalidate them, which an ETag makes cheap
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String SNAPSHOT_STALENESS_HEADER = "Snapshot-Staleness-Millis";
+
     private final BeerService beerService;
+    private final BeerImportService beerImportService;
+    private final ObjectMapper objectMapper;
+    private final BeerEventBus beerEventBus;
+    private final IdempotencyStore idempotencyStore;
+    private final CatalogueSnapshot catalogueSnapshot;
 
+    /**
+     * A retry with the same {@code Idempotency-Key} gets the beer created the
+     * first time instead of a duplicate name error.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        return beerService.createBeer(beerDTO);
+    public ResponseEntity<BeerDTO> createBeer(@RequestBody @Valid BeerDTO beerDTO,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws BeerStockBusinessException {
+        IdempotencyStore.Result<BeerDTO> result = idempotencyStore.execute("createBeer", idempotencyKey, beerDTO,
+                () -> beerService.createBeer(beerDTO));
+        return respond(ResponseEntity.status(HttpStatus.CREATED), result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = APPLICATION_NDJSON_VALUE)
+    public BulkImportResultDTO importBeersNdjson(InputStream body) throws IOException {
+        return beerImportService.importNdjson(body);
+    }
+
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+    public BulkImportResultDTO importBeersCsv(InputStream body) throws IOException {
+        return beerImportService.importCsv(body);
     }
 
+    /**
+     * Tagged with a digest of the beer, which usually comes from the cache;
+     * Spring answers a matching If-None-Match with 304 and no body.
+     */
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name) throws BeerNotFoundException {
+        BeerDTO beerDTO = beerService.findByName(name);
+        return ResponseEntity.ok().eTag(weak(eTagOf(beerDTO))).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                .body(beerDTO);
     }
 
+    /**
+     * Tagged with the catalogue version, so a matching If-None-Match is
+     * answered without reading any beer. In snapshot mode the beers, and the
+     * tag, come from the catalogue snapshot, as its JSON bytes when JSON is
+     * what the client prefers.
+     */
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<?> listBeers(@RequestParam(required = false) BeerType type, WebRequest request) {
+        CatalogueSnapshot.Copy copy = catalogueSnapshot.read(type);
+        if (request.checkNotModified(weak(copy == null ? beerService.catalogueETag() : copy.getVersion()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        if (copy == null) {
+            return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                    .body(type == null ? beerService.listAll() : beerService.listByType(type));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .header(SNAPSHOT_STALENESS_HEADER, String.valueOf(copy.getStalenessMillis()));
+        CatalogueSnapshot.Slice slice = copy.getSlice();
+        if (!prefersJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return response.body(slice.getBeers());
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(slice.getGzippedJson());
+        }
+        return response.body(slice.getJson());
+    }
+
+    @GetMapping("/page")
+    public BeerPageDTO listBeersPage(@RequestParam(required = false) String after,
+                                     @RequestParam(defaultValue = "" + BeerService.DEFAULT_PAGE_SIZE) int size,
+                                     @RequestParam(defaultValue = "ID") BeerSort sort) throws InvalidCursorException {
+        return beerService.listPage(after, size, sort);
+    }
+
+    @GetMapping("/search")
+    public BeerPageDTO searchBeers(@Valid BeerFilterDTO filter,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(defaultValue = "" + BeerService.DEFAULT_PAGE_SIZE) int size) throws InvalidCursorException {
+        return beerService.search(filter, after, size);
+    }
+
+    /**
+     * Served from the in-memory index, so it is as cheap as a lookup by name.
+     */
+    @GetMapping("/search/text")
+    public List<BeerSearchHitDTO> searchCatalogue(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "" + BeerService.DEFAULT_SEARCH_HITS) int limit) {
+        return beerService.searchCatalogue(q, limit);
+    }
+
+    @GetMapping("/stats/types")
+    public List<BeerStockStatsDTO> stockStatsByType() {
+        return beerService.stockStatsByType();
+    }
+
+    @GetMapping("/stats/brands")
+    public List<BeerStockStatsDTO> stockStatsByBrand() {
+        return beerService.stockStatsByBrand();
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamBeers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                beerService.streamAll(beerDTO -> {
+                    try {
+                        generator.writeObject(beerDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return beerEventBus.subscribe(lastEventId);
     }
 
     @DeleteMapping("/{id}")
@@ -54,8 +206,91 @@ public class BeerController implements BeerControllerDocs {
         beerService.deleteById(id);
     }
 
+    /**
+     * A retry with the same {@code Idempotency-Key} gets the first result
+     * back and does not increment again.
+     */
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws BeerStockBusinessException {
+        IdempotencyStore.Result<BeerDTO> result = idempotencyStore.execute("increment", idempotencyKey,
+                Arrays.asList(id, quantityDTO.getQuantity()), () -> beerService.increment(id, quantityDTO.getQuantity()));
+        return respond(ResponseEntity.ok(), result);
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException {
+        return beerService.decrement(id, quantityDTO.getQuantity());
+    }
+
+    @PostMapping("/{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public StockReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid ReservationDTO reservationDTO) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException {
+        return beerService.reserve(id, reservationDTO.getQuantity(), reservationDTO.getHoldSeconds());
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public BeerDTO confirmReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerStockContentionException {
+        return beerService.confirmReservation(reservationId);
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerStockContentionException {
+        beerService.releaseReservation(reservationId);
+    }
+
+    private static ResponseEntity<BeerDTO> respond(ResponseEntity.BodyBuilder response, IdempotencyStore.Result<BeerDTO> result) {
+        if (result.isReplayed()) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.body(result.getValue());
+    }
+
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.trim().isEmpty()) {
+            return true;
+        }
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() > 0 && acceptedType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (acceptedType.getQualityValue() > 0 && acceptedType.isConcrete()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.trim().split("\\s*;\\s*");
+            if ("gzip".equalsIgnoreCase(parameters[0])) {
+                return parameters.length == 1 || !parameters[1].matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // the same beers as JSON, CBOR or Smile, gzipped or not, are one version; Tomcat does not compress under a strong tag
+    private static String weak(String eTag) {
+        return "W/\"" + eTag + "\"";
+    }
+
+    private static String eTagOf(BeerDTO beerDTO) {
+        String fields = beerDTO.getId() + "|" + beerDTO.getName() + "|" + beerDTO.getBrand() + "|" + beerDTO.getMax()
+                + "|" + beerDTO.getQuantity() + "|" + beerDTO.getType();
+        return DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @PostMapping("/stock-movements")
+    public List<StockMovementResultDTO> applyStockMovements(@RequestBody @Valid StockMovementsDTO stockMovementsDTO) {
+        return beerService.applyStockMovements(stockMovementsDTO.getMovements());
     }
 }
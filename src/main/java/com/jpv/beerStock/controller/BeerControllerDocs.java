@@ -1,12 +1,34 @@
 package com.jpv.beerStock.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.jpv.beerStock.dto.BeerDTO;
-import com.jpv.beerStock.exceptions.BeerAlreadyRegisteredException;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
+import com.jpv.beerStock.dto.QuantityDTO;
+import com.jpv.beerStock.dto.ReservationDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.dto.StockMovementsDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
 import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockBusinessException;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.exceptions.InvalidCursorException;
+import com.jpv.beerStock.exceptions.ReservationNotFoundException;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -18,23 +40,84 @@ public interface BeerControllerDocs {
 
     @ApiOperation(value = "Beer creation operation")
     @ApiResponses(value = {
-            @ApiResponse(code = 201, message = "Success beer creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(code = 201, message = "Success beer creation, or the first result again for a repeated Idempotency-Key"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 409, message = "The first request with this Idempotency-Key is still being processed"),
+            @ApiResponse(code = 422, message = "The Idempotency-Key was already used for a different beer")
     })
-    BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
+    ResponseEntity<BeerDTO> createBeer(BeerDTO beerDTO, String idempotencyKey) throws BeerStockBusinessException;
+
+    @ApiOperation(value = "Bulk beer creation from a newline-delimited JSON body, one beer per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Number of beers received and created, and why the others were rejected")
+    })
+    BulkImportResultDTO importBeersNdjson(InputStream body) throws IOException;
+
+    @ApiOperation(value = "Bulk beer creation from a CSV body with a header line naming the beer fields")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Number of beers received and created, and why the others were rejected")
+    })
+    BulkImportResultDTO importBeersCsv(InputStream body) throws IOException;
 
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
+            @ApiResponse(code = 304, message = "Beer unchanged since the ETag given in If-None-Match"),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns a list of all beers registered in the system, or of those of one type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of the beers, with Snapshot-Staleness-Millis when served from the catalogue snapshot",
+                    response = BeerDTO.class, responseContainer = "List"),
+            @ApiResponse(code = 304, message = "Catalogue unchanged since the ETag given in If-None-Match"),
+    })
+    ResponseEntity<?> listBeers(BeerType type, WebRequest request);
+
+    @ApiOperation(value = "Returns one page of beers after the given cursor, ordered by the given sort")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers and the cursor of the next page, if any"),
+            @ApiResponse(code = 400, message = "Cursor is malformed or was issued for another sort.")
+    })
+    BeerPageDTO listBeersPage(String after, int size, BeerSort sort) throws InvalidCursorException;
+
+    @ApiOperation(value = "Returns one page of beers of a type, a brand prefix and a stock range, as a percentage of max, in id order")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of matching beers and the cursor of the next page, if any"),
+            @ApiResponse(code = 400, message = "Stock percentage out of 0-100 or malformed cursor.")
+    })
+    BeerPageDTO searchBeers(BeerFilterDTO filter, String after, int size) throws InvalidCursorException;
+
+    @ApiOperation(value = "Returns the beers whose name, brand or type have words starting with every word of q, best match first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Up to limit matching beers, without their stock")
+    })
+    List<BeerSearchHitDTO> searchCatalogue(String q, int limit);
+
+    @ApiOperation(value = "Returns the number of beers, total stock and total capacity of each beer type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock totals per beer type"),
+    })
+    List<BeerStockStatsDTO> stockStatsByType();
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Returns the number of beers, total stock and total capacity of each brand")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "Stock totals per brand"),
     })
-    List<BeerDTO> listBeers();
+    List<BeerStockStatsDTO> stockStatsByBrand();
+
+    @ApiOperation(value = "Streams all beers registered in the system as a JSON array")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "All beers registered in the system, written as they are read"),
+    })
+    ResponseEntity<StreamingResponseBody> streamBeers();
+
+    @ApiOperation(value = "Server-sent events for beers created, deleted or with their stock changed")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Events after the one given in Last-Event-ID, or a reset event when they are no longer kept, then new events as they happen")
+    })
+    SseEmitter events(String lastEventId);
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -42,4 +125,45 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Takes the given quantity out of the beer stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success beer stock decremented"),
+            @ApiResponse(code = 400, message = "Quantity exceeds the available stock or wrong field range value."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently, retry later.")
+    })
+    BeerDTO decrement(@PathVariable Long id, QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException;
+
+    @ApiOperation(value = "Holds the given quantity of the beer stock for a number of seconds")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success stock reserved until the returned expiration"),
+            @ApiResponse(code = 400, message = "Quantity exceeds the available stock or wrong field range value."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently, retry later.")
+    })
+    StockReservationDTO reserve(@PathVariable Long id, ReservationDTO reservationDTO) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException;
+
+    @ApiOperation(value = "Takes the stock held by a reservation out of the beer stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation confirmed"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found or expired."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently, retry later.")
+    })
+    BeerDTO confirmReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerStockContentionException;
+
+    @ApiOperation(value = "Gives the stock held by a reservation back to the beer")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Success reservation released"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found or expired."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently, retry later.")
+    })
+    void releaseReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerStockContentionException;
+
+    @ApiOperation(value = "Applies many stock increments and decrements in one transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Result of each movement: applied, not found, exceeded or insufficient"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or a zero delta.")
+    })
+    List<StockMovementResultDTO> applyStockMovements(StockMovementsDTO stockMovementsDTO);
 }
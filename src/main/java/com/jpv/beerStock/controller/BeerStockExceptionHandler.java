@@ -0,0 +1,65 @@
+package com.jpv.beerStock.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.jpv.beerStock.dto.ProblemDTO;
+import com.jpv.beerStock.exceptions.BeerStockBusinessException;
+
+/**
+ * Writes business rejections as problem responses in the request itself.
+ * Left to {@code @ResponseStatus}, each one would be sent as a servlet error
+ * and rendered again by a second dispatch to {@code /error}.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "beerstock.problem-details.enabled", havingValue = "true", matchIfMissing = true)
+public class BeerStockExceptionHandler {
+
+    public static final MediaType APPLICATION_PROBLEM_JSON = MediaType.valueOf("application/problem+json");
+
+    private static final String PROBLEM_TYPE_PREFIX = "/problems/";
+
+    // the status and type of each exception class, worked out once
+    private static final ClassValue<ProblemKind> KINDS = new ClassValue<ProblemKind>() {
+        @Override
+        protected ProblemKind computeValue(Class<?> type) {
+            ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(type, ResponseStatus.class);
+            HttpStatus status = responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+            // BeerNotFoundException -> /problems/beer-not-found
+            String name = type.getSimpleName().replaceFirst("Exception$", "");
+            return new ProblemKind(status, PROBLEM_TYPE_PREFIX + name.replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase());
+        }
+    };
+
+    @ExceptionHandler(BeerStockBusinessException.class)
+    public ResponseEntity<ProblemDTO> handleBusinessException(BeerStockBusinessException e, HttpServletRequest request) {
+        ProblemKind kind = KINDS.get(e.getClass());
+        ProblemDTO problem = ProblemDTO.builder()
+                .type(kind.type)
+                .title(kind.status.getReasonPhrase())
+                .status(kind.status.value())
+                .detail(e.getMessage())
+                .instance(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(kind.status).contentType(APPLICATION_PROBLEM_JSON).body(problem);
+    }
+
+    private static final class ProblemKind {
+
+        private final HttpStatus status;
+        private final String type;
+
+        private ProblemKind(HttpStatus status, String type) {
+            this.status = status;
+            this.type = type;
+        }
+    }
+}
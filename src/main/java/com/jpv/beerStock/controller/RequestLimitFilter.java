@@ -0,0 +1,144 @@
+package com.jpv.beerStock.controller;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.ProblemDTO;
+import com.jpv.beerStock.enums.RequestCost;
+import com.jpv.beerStock.services.AdaptiveConcurrencyLimit;
+import com.jpv.beerStock.services.ClientRateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Turns requests away before they reach the database: with 429 when the
+ * client used up its budget for that kind of request, and with 503 when the
+ * concurrency limit says the service is already saturated. The event stream
+ * is left out, since each subscriber holds its request open for minutes.
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final Set<String> LIST_PATHS = new HashSet<>(Arrays.asList(
+            BEER_API_URL_PATH, BEER_API_URL_PATH + "/page", BEER_API_URL_PATH + "/search", BEER_API_URL_PATH + "/stream"));
+    private static final String STATS_PATH_PREFIX = BEER_API_URL_PATH + "/stats/";
+    // only /{id}/history: a beer may be named "history"
+    private static final Pattern HISTORY_PATH = Pattern.compile(Pattern.quote(BEER_API_URL_PATH) + "/\\d+/history");
+    private static final String EVENTS_PATH = BEER_API_URL_PATH + "/events";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final String clientHeader;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestCost, Counter> rateLimited = new EnumMap<>(RequestCost.class);
+    private final Map<RequestCost, Counter> shed = new EnumMap<>(RequestCost.class);
+
+    public RequestLimitFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+            String clientHeader, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.clientHeader = clientHeader;
+        this.objectMapper = objectMapper;
+        for (RequestCost cost : RequestCost.values()) {
+            rateLimited.put(cost, rejections(meterRegistry, cost, "rate"));
+            shed.put(cost, rejections(meterRegistry, cost, "concurrency"));
+        }
+        Gauge.builder("beerstock.limits.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight at once")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.limits.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).equals(EVENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestCost cost = costOf(request.getMethod(), path(request));
+        long start = System.nanoTime();
+        long wait = rateLimiter.tryAcquire(clientOf(request), cost, start);
+        if (wait > 0) {
+            rateLimited.get(cost).increment();
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "rate-limited",
+                    "Request budget for " + cost.name().toLowerCase() + " requests used up.", wait);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            shed.get(cost).increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, "overloaded",
+                    "Too many requests in progress, try again later.", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start);
+        }
+    }
+
+    static RequestCost costOf(String method, String path) {
+        if (!HttpMethod.GET.matches(method)) {
+            return RequestCost.WRITE;
+        }
+        return LIST_PATHS.contains(path) || path.startsWith(STATS_PATH_PREFIX) || HISTORY_PATH.matcher(path).matches()
+                ? RequestCost.LIST
+                : RequestCost.LOOKUP;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = request.getHeader(clientHeader);
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+            String type, String detail, long retryAfterNanos) throws IOException {
+        ProblemDTO problem = ProblemDTO.builder()
+                .type("/problems/" + type)
+                .title(status.getReasonPhrase())
+                .status(status.value())
+                .detail(detail)
+                .instance(request.getRequestURI())
+                .build();
+        response.setStatus(status.value());
+        // whole seconds, rounded up so that a client retrying on time finds a token
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterNanos + 999_999_999L) / 1_000_000_000L));
+        response.setContentType(BeerStockExceptionHandler.APPLICATION_PROBLEM_JSON.toString());
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, RequestCost cost, String reason) {
+        return Counter.builder("beerstock.limits.rejected")
+                .description("Requests turned away by the rate or concurrency limit")
+                .tag("cost", cost.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.jpv.beerStock.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.jpv.beerStock.dto.StockAlertDTO;
+import com.jpv.beerStock.services.SseAlertSink;
+import com.jpv.beerStock.services.StockAlertEngine;
+
+import lombok.AllArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/alerts")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockAlertController implements StockAlertControllerDocs {
+
+    private final StockAlertEngine stockAlertEngine;
+    private final SseAlertSink sseAlertSink;
+
+    @GetMapping
+    public List<StockAlertDTO> listFiring() {
+        return stockAlertEngine.firing();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return sseAlertSink.subscribe();
+    }
+}
@@ -0,0 +1,28 @@
+package com.jpv.beerStock.controller;
+
+import java.util.List;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.jpv.beerStock.dto.StockAlertDTO;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@Api("Low-stock and near-max alerts")
+public interface StockAlertControllerDocs {
+
+    @ApiOperation(value = "Returns the alerts firing now")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Alerts fired and not yet resolved, empty when alerts are disabled")
+    })
+    List<StockAlertDTO> listFiring();
+
+    @ApiOperation(value = "Stream of the alerts sent from now on, as server-sent events named by alert type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Event stream; it only carries alerts when SSE is one of the alert sinks")
+    })
+    SseEmitter stream();
+}
@@ -0,0 +1,36 @@
+package com.jpv.beerStock.controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jpv.beerStock.dto.StockHistoryPointDTO;
+import com.jpv.beerStock.services.StockLedger;
+
+import lombok.AllArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/beers")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockHistoryController implements StockHistoryControllerDocs {
+
+    private final StockLedger stockLedger;
+
+    /**
+     * Read from the ledger alone, so a deleted beer still has its history.
+     */
+    @GetMapping("/{id}/history")
+    public List<StockHistoryPointDTO> history(@PathVariable Long id,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                              @RequestParam(defaultValue = "" + StockLedger.DEFAULT_HISTORY_POINTS) int limit) {
+        return stockLedger.history(id, from != null ? from : Instant.EPOCH, to != null ? to : Instant.now(), limit);
+    }
+}
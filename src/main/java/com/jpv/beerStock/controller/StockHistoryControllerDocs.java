@@ -0,0 +1,23 @@
+package com.jpv.beerStock.controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.jpv.beerStock.dto.StockHistoryPointDTO;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@Api("Stock movement history")
+public interface StockHistoryControllerDocs {
+
+    @ApiOperation(value = "Returns the stock movements of a beer from from (inclusive) to to (exclusive), oldest first;"
+            + " movements past the ledger retention come as hourly or daily rollups")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Up to limit history points, empty when the ledger is disabled"),
+            @ApiResponse(code = 400, message = "from or to is not an ISO-8601 instant")
+    })
+    List<StockHistoryPointDTO> history(Long id, Instant from, Instant to, int limit);
+}
@@ -1,11 +1,17 @@
 package com.jpv.beerStock.dto;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.validation.constraints.AssertFalse;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.jpv.beerStock.enums.BeerType;
 
 import lombok.AllArgsConstructor;
@@ -19,6 +25,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class BeerDTO {
 
+    // literal segments under /api/v1/beers, which GET /{name} would never reach
+    public static final Set<String> RESERVED_NAMES = new HashSet<>(Arrays.asList(
+            "page", "search", "stream", "events", "bulk", "stats", "reservations", "stock-movements"));
+
     private Long id;
 
     @NotNull
@@ -40,4 +50,10 @@ public class BeerDTO {
     @Enumerated(EnumType.STRING)
     @NotNull
     private BeerType type;
+
+    @JsonIgnore
+    @AssertFalse(message = "is reserved by the API routes")
+    public boolean isNameReserved() {
+        return RESERVED_NAMES.contains(name);
+    }
 }
@@ -0,0 +1,36 @@
+package com.jpv.beerStock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.jpv.beerStock.enums.BeerEventType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change to the catalogue. {@code quantity} is the quantity after the change
+ * and {@code delta} the change itself; each is left out when the writer does
+ * not know it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BeerEventDTO {
+
+    private BeerEventType type;
+
+    private Long beerId;
+
+    private String name;
+
+    private Integer quantity;
+
+    private Integer delta;
+
+    public static BeerEventDTO of(BeerEventType type, BeerDTO beerDTO, Integer delta) {
+        return new BeerEventDTO(type, beerDTO.getId(), beerDTO.getName(), beerDTO.getQuantity(), delta);
+    }
+}
@@ -0,0 +1,34 @@
+package com.jpv.beerStock.dto;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+import com.jpv.beerStock.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Catalogue search filters, all optional. The stock percentages bound
+ * {@code quantity} as a share of {@code max}, inclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerFilterDTO {
+
+    private BeerType type;
+
+    private String brand;
+
+    @Min(0)
+    @Max(100)
+    private Integer minStockPercent;
+
+    @Min(0)
+    @Max(100)
+    private Integer maxStockPercent;
+}
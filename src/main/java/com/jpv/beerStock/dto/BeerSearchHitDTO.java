@@ -0,0 +1,27 @@
+package com.jpv.beerStock.dto;
+
+import com.jpv.beerStock.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A beer matching a catalogue search, without its stock, which the index
+ * does not follow; the higher the score, the better the match.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchHitDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private BeerType type;
+
+    private int score;
+}
@@ -0,0 +1,27 @@
+package com.jpv.beerStock.dto;
+
+import com.jpv.beerStock.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockStatsDTO {
+
+    private String key;
+
+    private long beers;
+
+    private long quantity;
+
+    private long max;
+
+    public BeerStockStatsDTO(BeerType type, long beers, long quantity, long max) {
+        this(type.name(), beers, quantity, max);
+    }
+}
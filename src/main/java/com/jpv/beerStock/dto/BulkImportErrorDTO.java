@@ -0,0 +1,19 @@
+package com.jpv.beerStock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportErrorDTO {
+
+    private Long row;
+
+    private String name;
+
+    private String reason;
+}
@@ -0,0 +1,23 @@
+package com.jpv.beerStock.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+
+    private Long received;
+
+    private Long created;
+
+    private Long rejected;
+
+    private List<BulkImportErrorDTO> errors;
+}
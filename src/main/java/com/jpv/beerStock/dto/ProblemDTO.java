@@ -0,0 +1,29 @@
+package com.jpv.beerStock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An RFC 7807 problem body, served as {@code application/problem+json}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProblemDTO {
+
+    private String type;
+
+    private String title;
+
+    private int status;
+
+    private String detail;
+
+    private String instance;
+}
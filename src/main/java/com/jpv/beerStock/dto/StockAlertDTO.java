@@ -0,0 +1,43 @@
+package com.jpv.beerStock.dto;
+
+import java.time.Instant;
+
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockAlertStatus;
+import com.jpv.beerStock.enums.StockAlertType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An alert firing or resolving for one beer. {@code thresholdPercent} is the
+ * percentage of {@code max} that was crossed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+
+    private StockAlertType type;
+
+    private StockAlertStatus status;
+
+    private Long beerId;
+
+    private String name;
+
+    private String brand;
+
+    private BeerType beerType;
+
+    private int quantity;
+
+    private int max;
+
+    private int thresholdPercent;
+
+    private Instant at;
+}
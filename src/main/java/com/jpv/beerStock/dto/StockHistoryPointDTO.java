@@ -0,0 +1,39 @@
+package com.jpv.beerStock.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.jpv.beerStock.enums.StockHistoryGranularity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A point of a beer's stock history: one movement, or the movements of an
+ * hour or a day once compacted. {@code at} is when the movement was committed
+ * or when its hour or day starts, and {@code delta} the net change; only a
+ * single movement carries the {@code quantity} after it, when it is known.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockHistoryPointDTO {
+
+    private StockHistoryGranularity granularity;
+
+    private Instant at;
+
+    private long delta;
+
+    private long movements;
+
+    private long unitsIn;
+
+    private long unitsOut;
+
+    private Integer quantity;
+}
@@ -0,0 +1,35 @@
+package com.jpv.beerStock.dto;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementDTO {
+
+    @NotNull
+    private Long id;
+
+    @NotNull
+    @Min(-500)
+    @Max(500)
+    private Integer delta;
+
+    // a zero movement would still bump the version, be reported applied and publish a change
+    @JsonIgnore
+    @AssertTrue(message = "must not be 0")
+    public boolean isDeltaNonZero() {
+        return delta == null || delta != 0;
+    }
+}
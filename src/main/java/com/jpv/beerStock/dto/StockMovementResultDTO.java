@@ -0,0 +1,21 @@
+package com.jpv.beerStock.dto;
+
+import com.jpv.beerStock.enums.StockMovementStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResultDTO {
+
+    private Long id;
+
+    private Integer delta;
+
+    private StockMovementStatus status;
+}
@@ -0,0 +1,23 @@
+package com.jpv.beerStock.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementsDTO {
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid StockMovementDTO> movements;
+}
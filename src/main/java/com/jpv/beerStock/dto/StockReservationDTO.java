@@ -0,0 +1,23 @@
+package com.jpv.beerStock.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDTO {
+
+    private String id;
+
+    private Long beerId;
+
+    private Integer quantity;
+
+    private Instant expiresAt;
+}
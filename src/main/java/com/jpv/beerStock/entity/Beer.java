@@ -7,6 +7,10 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.jpv.beerStock.enums.BeerType;
 
@@ -16,12 +20,20 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_beer_brand", columnList = "brand"),
+        @Index(name = "idx_beer_type", columnList = "type"),
+        // stock filters and gauges compare quantity with max; scanning this index avoids the table
+        @Index(name = "idx_beer_stock", columnList = "quantity, max")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beer {
 
+    // pooled sequence ids let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_seq")
+    @SequenceGenerator(name = "beer_seq", sequenceName = "beer_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -40,5 +52,9 @@ public class Beer {
     @Column(nullable = false)
     private BeerType type;
 
+    @Column(nullable = false)
+    private int reserved;
 
+    @Version
+    private long version;
 }
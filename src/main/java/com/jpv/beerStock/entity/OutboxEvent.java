@@ -0,0 +1,47 @@
+package com.jpv.beerStock.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+import com.jpv.beerStock.enums.BeerEventType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A catalogue event waiting to be relayed, written in the transaction of the
+ * change it describes. Rows are deleted once the sink has accepted them.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BeerEventType type;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false, length = 1024)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
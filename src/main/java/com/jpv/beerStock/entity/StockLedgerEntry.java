@@ -0,0 +1,45 @@
+package com.jpv.beerStock.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One committed stock movement. Rows are only ever inserted, and deleted once
+ * the ledger compaction has folded them into a {@link StockLedgerRollup}.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(columnList = "beerId, movedAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_entry_seq")
+    @SequenceGenerator(name = "stock_ledger_entry_seq", sequenceName = "stock_ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    /** Quantity after the movement; batched movements do not read it back and leave it null. */
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Instant movedAt;
+}
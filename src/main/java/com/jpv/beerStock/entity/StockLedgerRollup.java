@@ -0,0 +1,56 @@
+package com.jpv.beerStock.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.jpv.beerStock.enums.StockHistoryGranularity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The movements of one beer in one hour or day, summed up by the ledger
+ * compaction in place of the rows it replaces.
+ */
+@Data
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"beerId", "bucketStart", "granularity"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_rollup_seq")
+    @SequenceGenerator(name = "stock_ledger_rollup_seq", sequenceName = "stock_ledger_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockHistoryGranularity granularity;
+
+    @Column(nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false)
+    private long movements;
+
+    @Column(nullable = false)
+    private long unitsIn;
+
+    @Column(nullable = false)
+    private long unitsOut;
+}
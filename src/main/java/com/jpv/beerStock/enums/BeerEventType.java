@@ -0,0 +1,15 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerEventType {
+
+    CREATED("Beer registered"),
+    STOCK_CHANGED("Beer quantity changed"),
+    DELETED("Beer deleted");
+
+    private final String description;
+}
@@ -0,0 +1,17 @@
+package com.jpv.beerStock.enums;
+
+import org.springframework.data.domain.Sort;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerSort {
+
+    ID(Sort.by("id")),
+    NAME(Sort.by("name")),
+    TYPE(Sort.by("type", "id"));
+
+    private final Sort sort;
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum EventOverflowPolicy {
+
+    DISCONNECT("Close the stream; the client resumes from its Last-Event-ID"),
+    DROP_OLDEST("Drop the oldest undelivered event; the client sees a gap in the ids");
+
+    private final String description;
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum OutboxSinkType {
+
+    LOCAL("In-process queue standing in for a message broker"),
+    FILE("Newline-delimited JSON appended to a file");
+
+    private final String description;
+}
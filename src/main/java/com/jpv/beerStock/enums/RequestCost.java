@@ -0,0 +1,19 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How expensive a request is to serve, which decides the rate budget it is
+ * counted against.
+ */
+@Getter
+@AllArgsConstructor
+public enum RequestCost {
+
+    LIST("Reads of the whole catalogue or of aggregates over it"),
+    LOOKUP("Reads of a single beer or reservation"),
+    WRITE("Creations and stock changes");
+
+    private final String description;
+}
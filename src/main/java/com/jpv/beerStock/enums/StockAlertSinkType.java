@@ -0,0 +1,15 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertSinkType {
+
+    LOG("Warning in the application log"),
+    WEBHOOK("In-process queue of webhook bodies standing in for HTTP delivery"),
+    SSE("Server-sent events on /api/v1/alerts/stream");
+
+    private final String description;
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertStatus {
+
+    FIRING("Threshold crossed"),
+    RESOLVED("Quantity back past the threshold and its hysteresis");
+
+    private final String description;
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertType {
+
+    LOW_STOCK("Quantity below the low-stock threshold, time to restock"),
+    NEAR_MAX("Quantity at or above the near-max threshold");
+
+    private final String description;
+}
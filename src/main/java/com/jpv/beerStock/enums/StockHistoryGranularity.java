@@ -0,0 +1,15 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockHistoryGranularity {
+
+    MOVEMENT("A single movement, as it was committed"),
+    HOUR("Movements of one hour, rolled up by the ledger compaction"),
+    DAY("Movements of one day (UTC), rolled up from hourly rollups by the ledger compaction");
+
+    private final String description;
+}
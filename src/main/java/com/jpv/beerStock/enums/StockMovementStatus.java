@@ -0,0 +1,16 @@
+package com.jpv.beerStock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockMovementStatus {
+
+    APPLIED("Applied"),
+    NOT_FOUND("Beer not found"),
+    EXCEEDED("Exceeds max stock"),
+    INSUFFICIENT("Exceeds available stock");
+
+    private final String description;
+}
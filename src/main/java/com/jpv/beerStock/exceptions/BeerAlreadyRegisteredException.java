@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class BeerAlreadyRegisteredException extends Exception{
+public class BeerAlreadyRegisteredException extends BeerStockBusinessException {
 
 	private static final long serialVersionUID = 1L;
 
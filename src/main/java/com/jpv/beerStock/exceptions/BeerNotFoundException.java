@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class BeerNotFoundException extends Exception {
+public class BeerNotFoundException extends BeerStockBusinessException {
 	private static final long serialVersionUID = 1L;
 
 	public BeerNotFoundException(String beerName) {
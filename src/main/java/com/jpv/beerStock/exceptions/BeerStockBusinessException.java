@@ -0,0 +1,16 @@
+package com.jpv.beerStock.exceptions;
+
+/**
+ * An expected business outcome, such as a missing beer or a full stock,
+ * rather than a fault. Rejections are a large share of the traffic and their
+ * stack trace is never read, so it is not filled in; the HTTP status still
+ * comes from {@code @ResponseStatus} on each subclass.
+ */
+public abstract class BeerStockBusinessException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	protected BeerStockBusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,18 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerStockContentionException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BeerStockContentionException(Long id) {
+        super(String.format("Beer with id %s is being updated concurrently, try again later.", id));
+    }
+
+    public BeerStockContentionException(String reservationId) {
+        super(String.format("Beer held by reservation %s is being updated concurrently, try again later.", reservationId));
+    }
+}
@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class BeerStockExceededException extends Exception {
+public class BeerStockExceededException extends BeerStockBusinessException {
 	private static final long serialVersionUID = 1L;
 
 	public BeerStockExceededException(Long id, int quantityToIncrement) {
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerStockInsufficientException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BeerStockInsufficientException(Long id, int quantityToDecrement) {
+        super(String.format("Beers with %s ID to decrement informed exceeds the available stock: %s", id, quantityToDecrement));
+    }
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyReusedException(String idempotencyKey) {
+        super(String.format("Idempotency key %s was already used for a different request.", idempotencyKey));
+    }
+}
@@ -0,0 +1,14 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotentRequestInProgressException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotentRequestInProgressException(String idempotencyKey) {
+        super(String.format("Request with idempotency key %s is still being processed, try again later.", idempotencyKey));
+    }
+}
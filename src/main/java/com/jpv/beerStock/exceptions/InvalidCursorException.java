@@ -0,0 +1,14 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCursorException(String cursor) {
+        super(String.format("Cursor %s is not valid for the requested listing.", cursor));
+    }
+}
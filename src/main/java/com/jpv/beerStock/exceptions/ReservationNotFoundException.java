@@ -0,0 +1,14 @@
+package com.jpv.beerStock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends BeerStockBusinessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ReservationNotFoundException(String reservationId) {
+        super(String.format("Reservation with id %s not found or already expired.", reservationId));
+    }
+}
@@ -0,0 +1,73 @@
+package com.jpv.beerStock.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public {@link com.jpv.beerStock.services.BeerService} operation
+ * and counts the exceptions it ends with, tagged by operation and type.
+ * Scheduled background work, such as the reservation sweep, is left out so it
+ * does not mix into the request latencies.
+ * Histogram buckets are switched on through the management.metrics properties.
+ */
+@Aspect
+@Component
+public class BeerServiceMetricsAspect {
+
+    static final String OPERATIONS_TIMER = "beerstock.service.operations";
+    static final String ERRORS_COUNTER = "beerstock.service.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BeerServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.jpv.beerStock.services.BeerService.*(..))"
+            + " && !@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long start = meterRegistry.config().clock().monotonicTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            errorCounter(operation, e.getClass().getSimpleName()).increment();
+            throw e;
+        } finally {
+            long elapsed = meterRegistry.config().clock().monotonicTime() - start;
+            timer(operation, outcome).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(OPERATIONS_TIMER)
+                .description("Latency of beer service operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Counter errorCounter(String operation, String exception) {
+        return errorCounters.computeIfAbsent(operation + ':' + exception, key -> Counter.builder(ERRORS_COUNTER)
+                .description("Beer service operations ended by an exception")
+                .tag("operation", operation)
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,51 @@
+package com.jpv.beerStock.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.jpv.beerStock.repositories.BeerRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Stock level gauges. The aggregates are refreshed on a schedule rather than
+ * per scrape, so a scrape never scans the beer table.
+ */
+@Component
+public class BeerStockGauges {
+
+    private final BeerRepository beerRepository;
+    private final int nearMaxPercent;
+    private final AtomicLong totalStock = new AtomicLong();
+    private final AtomicLong beersAtMax = new AtomicLong();
+    private final AtomicLong beersNearMax = new AtomicLong();
+
+    @Autowired
+    public BeerStockGauges(BeerRepository beerRepository, MeterRegistry meterRegistry,
+                           @Value("${beerstock.metrics.near-max-percent:90}") int nearMaxPercent) {
+        this.beerRepository = beerRepository;
+        this.nearMaxPercent = nearMaxPercent;
+        Gauge.builder("beerstock.stock.total", totalStock, AtomicLong::get)
+                .description("Sum of the stock of every beer")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.beers.at.max", beersAtMax, AtomicLong::get)
+                .description("Beers whose stock reached their max")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.beers.near.max", beersNearMax, AtomicLong::get)
+                .description("Beers whose stock is at least the configured percent of their max")
+                .tag("percent", String.valueOf(nearMaxPercent))
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.metrics.stock-refresh-interval-ms:30000}")
+    public void refresh() {
+        totalStock.set(beerRepository.sumQuantity());
+        beersAtMax.set(beerRepository.countWithStockAtLeast(100));
+        beersNearMax.set(beerRepository.countWithStockAtLeast(nearMaxPercent));
+    }
+}
@@ -1,12 +1,92 @@
 package com.jpv.beerStock.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
 import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+/**
+ * Read paths that only serialize beers select straight into {@link BeerDTO},
+ * in read-only transactions, so Hibernate neither builds managed entities nor
+ * keeps snapshots of them for dirty checking.
+ */
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerRepositoryCustom {
+
+    String SELECT_BEER_DTO = "select new com.jpv.beerStock.dto.BeerDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) from Beer b";
 
     Optional<Beer> findByName(String name);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.name = :name")
+    Optional<BeerDTO> findDTOByName(@Param("name") String name);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO)
+    List<BeerDTO> findAllDTOs();
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.type = :type")
+    List<BeerDTO> findAllDTOsByType(@Param("type") BeerType type);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.id in :ids")
+    List<BeerDTO> findAllDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Beer b where b.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.name from Beer b where b.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("select coalesce(sum(b.quantity), 0) from Beer b")
+    long sumQuantity();
+
+    @Query("select new com.jpv.beerStock.dto.BeerStockStatsDTO(b.type, count(b), coalesce(sum(b.quantity), 0), coalesce(sum(b.max), 0))"
+            + " from Beer b group by b.type order by b.type")
+    List<BeerStockStatsDTO> stockStatsByType();
+
+    @Query("select new com.jpv.beerStock.dto.BeerStockStatsDTO(b.brand, count(b), coalesce(sum(b.quantity), 0), coalesce(sum(b.max), 0))"
+            + " from Beer b group by b.brand order by b.brand")
+    List<BeerStockStatsDTO> stockStatsByBrand();
+
+    @Query("select count(b) from Beer b where cast(b.quantity as long) * 100 >= cast(b.max as long) * :percent")
+    long countWithStockAtLeast(@Param("percent") long percentOfMax);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO)
+    List<BeerDTO> findAllBy(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.id > :id")
+    List<BeerDTO> findByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.name > :name")
+    List<BeerDTO> findByNameGreaterThan(@Param("name") String name, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.type > :type or (b.type = :type and b.id > :id)")
+    List<BeerDTO> findByTypeAndIdAfter(@Param("type") BeerType type, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Adds to the stock in a single conditional update, so concurrent increments
+     * never overwrite each other. Returns 0 when the beer does not exist or the
+     * increment would exceed its max. Bumps the version so optimistic writers
+     * holding the old quantity are rejected.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :quantity, b.version = b.version + 1 where b.id = :id and b.quantity + :quantity <= b.max")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
 }
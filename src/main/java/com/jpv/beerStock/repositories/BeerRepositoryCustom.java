@@ -0,0 +1,39 @@
+package com.jpv.beerStock.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.entity.Beer;
+
+public interface BeerRepositoryCustom {
+
+    /**
+     * Applies every movement as one conditional update, sent to the database in
+     * JDBC batches. Returns, per movement, the number of rows updated: 0 when
+     * the beer does not exist or the delta would leave the stock outside
+     * [reserved, max].
+     */
+    int[] applyQuantityDeltas(List<StockMovementDTO> movements);
+
+    /**
+     * Adds already validated deltas, by beer id, in JDBC batches. Beers deleted
+     * meanwhile are skipped.
+     */
+    void addQuantities(Map<Long, Integer> deltas);
+
+    /**
+     * Returns up to {@code limit} beers matching the filter with an id above
+     * {@code afterId}, in id order. Only the filters that are set become
+     * predicates, so each query can use the index of its own columns.
+     */
+    List<BeerDTO> search(BeerFilterDTO filter, Long afterId, int limit);
+
+    /**
+     * Persists new beers, flushing them as batched inserts, and detaches them so
+     * large imports do not pile up in the persistence context.
+     */
+    void insertAllAndDetach(List<Beer> beers);
+}
@@ -0,0 +1,112 @@
+package com.jpv.beerStock.repositories;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.entity.Beer;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerRepositoryCustomImpl implements BeerRepositoryCustom {
+
+    private static final int JDBC_BATCH_SIZE = 500;
+    private static final String APPLY_DELTA_SQL = "update beer set quantity = quantity + ?, version = version + 1"
+            + " where id = ? and quantity + ? <= max and quantity + ? >= reserved";
+    private static final String ADD_QUANTITY_SQL = "update beer set quantity = quantity + ?, version = version + 1 where id = ?";
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int[] applyQuantityDeltas(List<StockMovementDTO> movements) {
+        // rows are locked in id order, like hibernate.order_updates does, so concurrent batches
+        // wait for each other instead of deadlocking; the sort is stable, keeping each beer's movements in order
+        List<Integer> order = IntStream.range(0, movements.size()).boxed()
+                .sorted(Comparator.comparing(index -> movements.get(index).getId()))
+                .collect(Collectors.toList());
+        int[][] batches = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, order, JDBC_BATCH_SIZE, (statement, index) -> {
+            StockMovementDTO movement = movements.get(index);
+            statement.setInt(1, movement.getDelta());
+            statement.setLong(2, movement.getId());
+            statement.setInt(3, movement.getDelta());
+            statement.setInt(4, movement.getDelta());
+        });
+        int[] updated = new int[movements.size()];
+        int position = 0;
+        for (int[] batch : batches) {
+            for (int count : batch) {
+                updated[order.get(position++)] = count;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public void addQuantities(Map<Long, Integer> deltas) {
+        jdbcTemplate.batchUpdate(ADD_QUANTITY_SQL, deltas.entrySet(), JDBC_BATCH_SIZE, (statement, delta) -> {
+            statement.setInt(1, delta.getValue());
+            statement.setLong(2, delta.getKey());
+        });
+    }
+
+    @Override
+    public List<BeerDTO> search(BeerFilterDTO filter, Long afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BeerDTO> query = builder.createQuery(BeerDTO.class);
+        Root<Beer> beer = query.from(Beer.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(builder.greaterThan(beer.get("id"), afterId));
+        }
+        if (filter.getType() != null) {
+            predicates.add(builder.equal(beer.get("type"), filter.getType()));
+        }
+        if (filter.getBrand() != null && !filter.getBrand().isEmpty()) {
+            predicates.add(builder.like(beer.get("brand"), escapeLike(filter.getBrand()) + "%", LIKE_ESCAPE));
+        }
+        // quantity * 100 against max * percent, widened so large maximums do not overflow
+        Expression<Long> scaledQuantity = builder.prod(beer.<Integer>get("quantity").as(Long.class), 100L);
+        Expression<Long> max = beer.<Integer>get("max").as(Long.class);
+        if (filter.getMinStockPercent() != null) {
+            predicates.add(builder.ge(scaledQuantity, builder.prod(max, filter.getMinStockPercent().longValue())));
+        }
+        if (filter.getMaxStockPercent() != null) {
+            predicates.add(builder.le(scaledQuantity, builder.prod(max, filter.getMaxStockPercent().longValue())));
+        }
+        query.select(builder.construct(BeerDTO.class, beer.get("id"), beer.get("name"), beer.get("brand"),
+                        beer.get("max"), beer.get("quantity"), beer.get("type")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(beer.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void insertAllAndDetach(List<Beer> beers) {
+        beers.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package com.jpv.beerStock.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jpv.beerStock.entity.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Transactional(readOnly = true)
+    List<OutboxEvent> findByIdLessThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,8 @@
+package com.jpv.beerStock.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.jpv.beerStock.entity.StockEngineCheckpoint;
+
+public interface StockEngineCheckpointRepository extends JpaRepository<StockEngineCheckpoint, Integer> {
+}
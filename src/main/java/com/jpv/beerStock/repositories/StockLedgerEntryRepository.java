@@ -0,0 +1,28 @@
+package com.jpv.beerStock.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jpv.beerStock.entity.StockLedgerEntry;
+
+public interface StockLedgerEntryRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select e from StockLedgerEntry e where e.beerId = :beerId and e.movedAt >= :from and e.movedAt < :to"
+            + " order by e.movedAt, e.id")
+    List<StockLedgerEntry> findHistory(@Param("beerId") Long beerId, @Param("from") Instant from,
+            @Param("to") Instant to, Pageable pageable);
+
+    /**
+     * Ids grow with time, since one flusher writes the entries in the order
+     * they were committed, so walking them in id order finds the old ones first
+     * without an index on the time alone.
+     */
+    List<StockLedgerEntry> findAllByMovedAtBeforeOrderByIdAsc(Instant cutoff, Pageable pageable);
+}
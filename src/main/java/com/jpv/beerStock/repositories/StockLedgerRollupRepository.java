@@ -0,0 +1,30 @@
+package com.jpv.beerStock.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jpv.beerStock.entity.StockLedgerRollup;
+import com.jpv.beerStock.enums.StockHistoryGranularity;
+
+public interface StockLedgerRollupRepository extends JpaRepository<StockLedgerRollup, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select r from StockLedgerRollup r where r.beerId = :beerId and r.bucketStart >= :from and r.bucketStart < :to"
+            + " order by r.bucketStart, r.granularity")
+    List<StockLedgerRollup> findHistory(@Param("beerId") Long beerId, @Param("from") Instant from,
+            @Param("to") Instant to, Pageable pageable);
+
+    List<StockLedgerRollup> findAllByGranularityAndBucketStartBeforeOrderByIdAsc(StockHistoryGranularity granularity,
+            Instant cutoff, Pageable pageable);
+
+    /** A superset of the given buckets, since it crosses every beer with every start. */
+    List<StockLedgerRollup> findAllByGranularityAndBeerIdInAndBucketStartIn(StockHistoryGranularity granularity,
+            Collection<Long> beerIds, Collection<Instant> bucketStarts);
+}
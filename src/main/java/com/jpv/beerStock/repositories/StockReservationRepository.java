@@ -0,0 +1,13 @@
+package com.jpv.beerStock.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.jpv.beerStock.entity.StockReservation;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    List<StockReservation> findByExpiresAtBefore(Instant instant);
+}
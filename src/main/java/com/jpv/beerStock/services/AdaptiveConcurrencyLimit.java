@@ -0,0 +1,76 @@
+package com.jpv.beerStock.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the requests in flight at a limit that adapts to latency: a response
+ * slower than the threshold cuts the limit by a tenth, at most once per limit's
+ * worth of completions, and a fast response while at least half of the limit
+ * is in use raises it by one. When the
+ * database slows down, requests beyond the limit are turned away at once
+ * instead of queueing for a connection.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completions = new AtomicLong();
+    // completion count from which a slow response may cut the limit again
+    private final AtomicLong nextBackoffAt = new AtomicLong();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long completed = completions.incrementAndGet();
+        if (latencyNanos > latencyThresholdNanos) {
+            backOff(completed);
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Cuts the limit once for the requests that were in flight when the
+     * latency went up: they all answer slowly, and only the completions after
+     * them show whether the cut was enough.
+     */
+    private void backOff(long completed) {
+        long allowedAt = nextBackoffAt.get();
+        int current = limit.get();
+        if (completed >= allowedAt && nextBackoffAt.compareAndSet(allowedAt, completed + current)) {
+            limit.updateAndGet(value -> Math.max(minLimit, (int) (value * BACKOFF_RATIO)));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,128 @@
+package com.jpv.beerStock.services;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jpv.beerStock.dto.BeerDTO;
+
+/**
+ * Read-through cache of beers by name. Invalidations issued inside a
+ * transaction are applied once it completes, so a concurrent miss cannot load
+ * the pre-commit row back into the cache.
+ *
+ * <p>Writes that only know ids evict through an index of the names loaded by
+ * id. A name is indexed inside its load, before the beer can be read from the
+ * cache, so every cached beer is in the index. Entries whose name has left the
+ * cache are pruned once the index outgrows the cache.
+ */
+public class BeerCache {
+
+    private static final int INDEX_SLACK = 1024;
+
+    private final Cache<String, BeerDTO> beersByName;
+    private final ConcurrentMap<Long, String> namesById = new ConcurrentHashMap<>();
+
+    public BeerCache(Cache<String, BeerDTO> beersByName) {
+        this.beersByName = beersByName;
+    }
+
+    public static BeerCache disabled() {
+        return new BeerCache(null);
+    }
+
+    /**
+     * Returns the cached beer or loads it; a loader returning null (beer not
+     * found) is not cached.
+     */
+    public BeerDTO getByName(String name, Function<String, BeerDTO> loader) {
+        if (beersByName == null) {
+            BeerDTO beerDTO = loader.apply(name);
+            return beerDTO == null ? null : copyOf(beerDTO);
+        }
+        BeerDTO beerDTO = beersByName.get(name, key -> {
+            BeerDTO loaded = loader.apply(key);
+            if (loaded != null) {
+                namesById.put(loaded.getId(), key);
+            }
+            return loaded;
+        });
+        if (indexOutgrowsCache()) {
+            pruneIndex();
+        }
+        return beerDTO == null ? null : copyOf(beerDTO);
+    }
+
+    public void evictName(String name) {
+        if (beersByName != null) {
+            afterCompletion(() -> beersByName.invalidate(name));
+        }
+    }
+
+    public void evictNames(Collection<String> names) {
+        if (beersByName != null && !names.isEmpty()) {
+            afterCompletion(() -> beersByName.invalidateAll(names));
+        }
+    }
+
+    /**
+     * Evicts by id, for writes that only know the ids they touched.
+     */
+    public void evictIds(Collection<Long> ids) {
+        if (beersByName != null && !ids.isEmpty()) {
+            afterCompletion(() -> ids.forEach(id -> {
+                String name = namesById.get(id);
+                if (name != null) {
+                    beersByName.invalidate(name);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Drops the ids whose name is no longer cached. The check runs under the
+     * name's lock, so a load of that name cannot slip in between.
+     */
+    private synchronized void pruneIndex() {
+        if (!indexOutgrowsCache()) {
+            return;
+        }
+        namesById.forEach((id, name) -> {
+            if (!beersByName.asMap().containsKey(name)) {
+                beersByName.asMap().compute(name, (key, cached) -> {
+                    if (cached == null) {
+                        namesById.remove(id, name);
+                    }
+                    return cached;
+                });
+            }
+        });
+    }
+
+    private boolean indexOutgrowsCache() {
+        return namesById.size() > 2 * beersByName.estimatedSize() + INDEX_SLACK;
+    }
+
+    private static void afterCompletion(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+
+    private static BeerDTO copyOf(BeerDTO beerDTO) {
+        return new BeerDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(),
+                beerDTO.getMax(), beerDTO.getQuantity(), beerDTO.getType());
+    }
+}
@@ -0,0 +1,77 @@
+package com.jpv.beerStock.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.exceptions.InvalidCursorException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque keyset position: the sort it was issued for plus the sort key and id
+ * of the last row returned, encoded as url-safe base64.
+ */
+@Getter
+@AllArgsConstructor
+class BeerCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final BeerSort sort;
+    private final String value;
+    private final Long id;
+
+    static BeerCursor of(BeerDTO beer, BeerSort sort) {
+        switch (sort) {
+            case NAME:
+                return new BeerCursor(sort, beer.getName(), beer.getId());
+            case TYPE:
+                return new BeerCursor(sort, beer.getType().name(), beer.getId());
+            default:
+                return new BeerCursor(sort, "", beer.getId());
+        }
+    }
+
+    static BeerCursor afterId(Long id) {
+        return new BeerCursor(BeerSort.ID, "", id);
+    }
+
+    static BeerCursor decode(String cursor, BeerSort expectedSort) throws InvalidCursorException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            BeerSort sort = BeerSort.valueOf(raw.substring(0, first));
+            String value = raw.substring(first + 1, last);
+            Long id = Long.valueOf(raw.substring(last + 1));
+            if (sort != expectedSort || first == last || (sort == BeerSort.TYPE && !isBeerType(value))) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new BeerCursor(sort, value, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    String encode() {
+        String raw = sort.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    BeerType getType() {
+        return BeerType.valueOf(value);
+    }
+
+    private static boolean isBeerType(String value) {
+        for (BeerType type : BeerType.values()) {
+            if (type.name().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,280 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+
+/**
+ * Fans catalogue events out to server-sent event streams. Events published
+ * inside a transaction are numbered and sent once it commits, so their order
+ * is commit order. The last {@code historySize} events stay in a ring buffer,
+ * which lets a client that reconnects with {@code Last-Event-ID} pick up where
+ * it stopped; when the id is older than the buffer, or from before a restart,
+ * the client gets a {@code reset} event and should reload the catalogue.
+ *
+ * <p>Publishing never waits for a client. Each subscriber has its own queue of
+ * at most {@code subscriberBuffer} events, drained by a shared pool of sender
+ * threads; a subscriber whose queue is full is disconnected or loses its
+ * oldest event, depending on the {@link EventOverflowPolicy}.
+ *
+ * <p>The last event id also serves as the catalogue's entity tag. Like
+ * {@link BeerCache}, the history lives in this instance; the start time in
+ * every id keeps ids from before a restart from matching.
+ */
+public class BeerEventBus {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final Envelope HEARTBEAT = new Envelope(null, null);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Envelope[] history;
+    private final int subscriberBuffer;
+    private final EventOverflowPolicy overflow;
+    private final long streamTimeoutMillis;
+    private final ExecutorService sender;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<BeerEventDTO>>> listeners = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+
+    private volatile long sequence;
+
+    public BeerEventBus(int historySize, int subscriberBuffer, EventOverflowPolicy overflow, Duration streamTimeout,
+            ExecutorService sender) {
+        this.history = new Envelope[historySize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.overflow = overflow;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+        this.sender = sender;
+    }
+
+    public void publish(BeerEventDTO event) {
+        publishAll(Collections.singletonList(event));
+    }
+
+    public void publishAll(List<BeerEventDTO> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(events);
+            }
+        });
+    }
+
+    /**
+     * Id of the last event published, and so the entity tag of the catalogue
+     * as of that event.
+     */
+    public String lastEventId() {
+        return eventId(sequence);
+    }
+
+    /**
+     * Opens a stream of the events published from now on, preceded by those
+     * after {@code lastEventId} when it is given.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (lock) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Has the listener called with each batch of events once committed, in
+     * commit order, while publishing is held; it must return quickly.
+     */
+    public void addListener(Consumer<List<BeerEventDTO>> listener) {
+        listeners.add(listener);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // also how a stream to a client that went away is noticed and closed
+    @Scheduled(fixedDelayString = "${beerstock.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT, false));
+    }
+
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdown();
+    }
+
+    private void append(List<BeerEventDTO> events) {
+        synchronized (lock) {
+            for (BeerEventDTO event : events) {
+                long next = sequence + 1;
+                Envelope envelope = new Envelope(eventId(next), event);
+                history[(int) (next % history.length)] = envelope;
+                sequence = next;
+                subscribers.forEach(subscriber -> subscriber.offer(envelope, false));
+            }
+            listeners.forEach(listener -> listener.accept(events));
+        }
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long from = resumeSequence(lastEventId);
+        if (from < 0) {
+            subscriber.offer(new Envelope(lastEventId(), null), true);
+            return;
+        }
+        for (long next = from + 1; next <= sequence; next++) {
+            subscriber.offer(history[(int) (next % history.length)], true);
+        }
+    }
+
+    /**
+     * Sequence the client last saw, or -1 when the ring buffer no longer holds
+     * everything after it or the id was not issued by this instance.
+     */
+    private long resumeSequence(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return seen > sequence || seen < sequence - history.length ? -1 : seen;
+    }
+
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    private static final class Envelope {
+
+        private final String id;
+        private final BeerEventDTO event;
+
+        private Envelope(String id, BeerEventDTO event) {
+            this.id = id;
+            this.event = event;
+        }
+
+        private SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("");
+            }
+            if (event == null) {
+                return SseEmitter.event().id(id).name(RESET_EVENT).data(id);
+            }
+            return SseEmitter.event().id(id).name(event.getType().name()).data(event, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Envelope> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues an event without blocking. A replay may exceed the buffer,
+         * since it is bounded by the history instead.
+         */
+        private void offer(Envelope envelope, boolean replay) {
+            synchronized (this) {
+                if (closed || envelope == HEARTBEAT && !queue.isEmpty()) {
+                    return;
+                }
+                if (!replay && queue.size() >= subscriberBuffer) {
+                    if (overflow == EventOverflowPolicy.DISCONNECT) {
+                        // the client reconnects with the id of the last event it got and is replayed the rest
+                        closed = true;
+                        queue.clear();
+                        subscribers.remove(this);
+                    } else {
+                        queue.pollFirst();
+                    }
+                }
+                if (!closed) {
+                    queue.addLast(envelope);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down; close() completes the stream
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Envelope next;
+                synchronized (this) {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        if (!closed) {
+                            return;
+                        }
+                    }
+                }
+                if (next == null) {
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(next.toSse());
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone or the stream timed out; the emitter is already completed
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BulkImportErrorDTO;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Reads a beer catalogue row by row from an NDJSON or CSV stream and hands it
+ * to {@link BeerService#createBeers(List)} in chunks, so neither the body nor
+ * the created entities are ever held in memory as a whole.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public BulkImportResultDTO importNdjson(InputStream inputStream) throws IOException {
+        return importBeers(objectMapper.readerFor(BeerDTO.class), inputStream);
+    }
+
+    /**
+     * Expects a header line naming the {@link BeerDTO} fields, in any order.
+     */
+    public BulkImportResultDTO importCsv(InputStream inputStream) throws IOException {
+        ObjectReader reader = CSV_MAPPER.readerFor(BeerDTO.class).with(CsvSchema.emptySchema().withHeader());
+        return importBeers(reader, inputStream);
+    }
+
+    private BulkImportResultDTO importBeers(ObjectReader reader, InputStream inputStream) throws IOException {
+        BulkImportResultDTO result = new BulkImportResultDTO(0L, 0L, 0L, new ArrayList<>());
+        List<BeerDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        long row = 0;
+        try (MappingIterator<BeerDTO> rows = reader.readValues(inputStream)) {
+            while (rows.hasNextValue()) {
+                row++;
+                BeerDTO beerDTO;
+                try {
+                    beerDTO = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    reject(result, row, null, "Unreadable row: " + e.getOriginalMessage());
+                    continue;
+                }
+                String violations = validate(beerDTO);
+                if (violations != null) {
+                    reject(result, row, beerDTO.getName(), violations);
+                    continue;
+                }
+                chunk.add(beerDTO);
+                chunkRows.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk, chunkRows, result);
+                }
+            }
+        } catch (JsonParseException e) {
+            // a row that cannot even be tokenized ends the import, the rows before it are kept
+            reject(result, row, null, "Malformed row, import stopped: " + e.getOriginalMessage());
+        }
+        flush(chunk, chunkRows, result);
+        result.setReceived(row);
+        return result;
+    }
+
+    private void flush(List<BeerDTO> chunk, List<Long> chunkRows, BulkImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> createdNames = createBeers(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            String name = chunk.get(i).getName();
+            if (createdNames.remove(name)) {
+                result.setCreated(result.getCreated() + 1);
+            } else {
+                reject(result, chunkRows.get(i), name, "Beer already registered in the system.");
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    /**
+     * A name registered by someone else between the chunk's name lookup and its
+     * insert fails the whole chunk on the unique constraint. The chunk is rolled
+     * back and tried again, and the new lookup reports that row as a duplicate.
+     */
+    private Set<String> createBeers(List<BeerDTO> chunk) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return beerService.createBeers(chunk);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String validate(BeerDTO beerDTO) {
+        Set<ConstraintViolation<BeerDTO>> violations = validator.validate(beerDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void reject(BulkImportResultDTO result, long row, String name, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkImportErrorDTO(row, name, reason));
+        }
+    }
+}
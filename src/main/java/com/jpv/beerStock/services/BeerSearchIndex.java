@@ -0,0 +1,447 @@
+package com.jpv.beerStock.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.repositories.BeerRepository;
+
+/**
+ * In-memory inverted index over the words of each beer's name, brand and type
+ * description, matched by prefix so that partial input finds the beer.
+ * Every word of the query has to match. A word matching in full counts twice
+ * as much as a prefix, and a match in the name twice as much as one in the
+ * brand, which counts twice as much as one in the type; ties go to the
+ * oldest beer.
+ *
+ * <p>Each field has its own postings, sorted by id. A one-word query walks
+ * them from the best score down, merging by id, and stops at the limit, so it
+ * costs the same however many beers match. With more words, the word with
+ * the fewest postings picks the candidates and the others are checked against
+ * each candidate's own words.
+ *
+ * <p>Built from the database at startup and kept current by the writes of
+ * {@link BeerService}, applied once they commit; like {@link BeerCache} it
+ * lives in this instance.
+ */
+public class BeerSearchIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    // each weight twice the next, so that a full match in one field ties with a prefix in the field above
+    private static final int NAME_WEIGHT = 4;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int TYPE_WEIGHT = 1;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Map<BeerType, String[]> TYPE_WORDS = new EnumMap<>(BeerType.class);
+
+    static {
+        for (BeerType type : BeerType.values()) {
+            TYPE_WORDS.put(type, words(type.getDescription()));
+        }
+    }
+
+    // worst hit first, for the heap of the best ones
+    private static final Comparator<BeerSearchHitDTO> WORST_FIRST = Comparator.comparingInt(BeerSearchHitDTO::getScore)
+            .thenComparing(BeerSearchHitDTO::getId, Comparator.reverseOrder());
+
+    private final BeerRepository beerRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Postings> names = new TreeMap<>();
+    private final NavigableMap<String, Postings> brands = new TreeMap<>();
+    private final NavigableMap<String, Postings> types = new TreeMap<>();
+    // brands repeat across many beers, so each brand's words are split and held once while a beer has it
+    private final Map<String, BrandWords> brandWords = new HashMap<>();
+
+    public BeerSearchIndex(BeerRepository beerRepository) {
+        this(beerRepository, true);
+    }
+
+    private BeerSearchIndex(BeerRepository beerRepository, boolean enabled) {
+        this.beerRepository = beerRepository;
+        this.enabled = enabled;
+    }
+
+    public static BeerSearchIndex disabled() {
+        return new BeerSearchIndex(null, false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the whole catalogue in keyset batches. Run before requests are
+     * served; writes committed while it runs may be missed.
+     */
+    public void rebuild() {
+        if (!enabled || beerRepository == null) {
+            return;
+        }
+        Pageable batch = PageRequest.of(0, REBUILD_BATCH_SIZE, BeerSort.ID.getSort());
+        List<BeerDTO> beers = beerRepository.findAllBy(batch);
+        while (!beers.isEmpty()) {
+            apply(beers, Collections.emptyList());
+            if (beers.size() < REBUILD_BATCH_SIZE) {
+                return;
+            }
+            beers = beerRepository.findByIdGreaterThan(beers.get(beers.size() - 1).getId(), batch);
+        }
+    }
+
+    public void add(Collection<BeerDTO> beers) {
+        if (enabled && !beers.isEmpty()) {
+            afterCommit(() -> apply(beers, Collections.emptyList()));
+        }
+    }
+
+    public void remove(Long id) {
+        if (enabled) {
+            afterCommit(() -> apply(Collections.emptyList(), Collections.singletonList(id)));
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int brandCount() {
+        lock.readLock().lock();
+        try {
+            return brandWords.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} beers matching every word of the query, best
+     * first.
+     */
+    public List<BeerSearchHitDTO> search(String query, int limit) {
+        String[] queryWords = new LinkedHashSet<>(Arrays.asList(words(query))).toArray(new String[0]);
+        if (!enabled || queryWords.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return queryWords.length == 1 ? searchWord(queryWords[0], limit) : searchWords(queryWords, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<BeerSearchHitDTO> searchWord(String queryWord, int limit) {
+        List<BeerSearchHitDTO> hits = new ArrayList<>(limit);
+        Set<Long> taken = new HashSet<>();
+        takeInIdOrder(exact(names, queryWord), 2 * NAME_WEIGHT, limit, taken, hits);
+        takeInIdOrder(concat(prefixed(names, queryWord), exact(brands, queryWord)), NAME_WEIGHT, limit, taken, hits);
+        takeInIdOrder(concat(prefixed(brands, queryWord), exact(types, queryWord)), BRAND_WEIGHT, limit, taken, hits);
+        takeInIdOrder(prefixed(types, queryWord), TYPE_WEIGHT, limit, taken, hits);
+        return hits;
+    }
+
+    // merges the postings by id and takes the beers not taken at a better score yet
+    private void takeInIdOrder(List<Postings> postings, int score, int limit, Set<Long> taken, List<BeerSearchHitDTO> hits) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(postings.size(), 1), Comparator.comparingLong(Cursor::id));
+        for (Postings postingsOfWord : postings) {
+            cursors.add(new Cursor(postingsOfWord));
+        }
+        while (hits.size() < limit && !cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            long id = cursor.id();
+            if (taken.add(id)) {
+                hits.add(entries.get(id).toHit(score));
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    private List<BeerSearchHitDTO> searchWords(String[] queryWords, int limit) {
+        PriorityQueue<BeerSearchHitDTO> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        Set<Long> seen = new HashSet<>();
+        for (Postings postingsOfWord : mostSelective(queryWords)) {
+            for (int i = 0; i < postingsOfWord.size; i++) {
+                long id = postingsOfWord.ids[i];
+                if (!seen.add(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                int score = entry.score(queryWords, brandWords.get(entry.brand).words);
+                if (score > 0 && (best.size() < limit || score > best.peek().getScore())) {
+                    best.add(entry.toHit(score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        List<BeerSearchHitDTO> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            hits.add(best.poll());
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    // the postings matching the query word that has the fewest of them
+    private List<Postings> mostSelective(String[] queryWords) {
+        String selected = null;
+        long selectedCount = Long.MAX_VALUE;
+        for (String queryWord : queryWords) {
+            long count = countUpTo(queryWord, selectedCount);
+            if (count < selectedCount) {
+                selected = queryWord;
+                selectedCount = count;
+            }
+        }
+        return concat(prefixed(names, selected), prefixed(brands, selected), prefixed(types, selected));
+    }
+
+    // stops counting at the bound, as a short word can match most of the catalogue
+    private long countUpTo(String queryWord, long bound) {
+        long count = 0;
+        for (NavigableMap<String, Postings> field : Arrays.asList(names, brands, types)) {
+            for (Postings postingsOfWord : prefixedView(field, queryWord).values()) {
+                count += postingsOfWord.size;
+                if (count >= bound) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void apply(Collection<BeerDTO> added, Collection<Long> removed) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : removed) {
+                Entry entry = entries.remove(id);
+                if (entry != null) {
+                    unpost(names, entry.nameWords, id);
+                    BrandWords brand = brandWords.get(entry.brand);
+                    unpost(brands, brand.words, id);
+                    if (--brand.beers == 0) {
+                        brandWords.remove(entry.brand);
+                    }
+                    unpost(types, TYPE_WORDS.get(entry.type), id);
+                }
+            }
+            for (BeerDTO beer : added) {
+                if (beer.getId() == null || entries.containsKey(beer.getId())) {
+                    continue;
+                }
+                Entry entry = new Entry(beer.getId(), beer.getName(), beer.getBrand(), beer.getType(), words(beer.getName()));
+                entries.put(entry.id, entry);
+                post(names, entry.nameWords, entry.id);
+                BrandWords brand = brandWords.computeIfAbsent(entry.brand, BrandWords::new);
+                brand.beers++;
+                post(brands, brand.words, entry.id);
+                post(types, TYPE_WORDS.get(entry.type), entry.id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void post(NavigableMap<String, Postings> field, String[] words, long id) {
+        for (String word : words) {
+            field.computeIfAbsent(word, key -> new Postings()).add(id);
+        }
+    }
+
+    private static void unpost(NavigableMap<String, Postings> field, String[] words, long id) {
+        for (String word : words) {
+            Postings postingsOfWord = field.get(word);
+            if (postingsOfWord != null) {
+                postingsOfWord.remove(id);
+                if (postingsOfWord.size == 0) {
+                    field.remove(word);
+                }
+            }
+        }
+    }
+
+    private static List<Postings> exact(NavigableMap<String, Postings> field, String queryWord) {
+        Postings postingsOfWord = field.get(queryWord);
+        return postingsOfWord == null ? Collections.emptyList() : Collections.singletonList(postingsOfWord);
+    }
+
+    private static List<Postings> prefixed(NavigableMap<String, Postings> field, String queryWord) {
+        return new ArrayList<>(prefixedView(field, queryWord).values());
+    }
+
+    private static NavigableMap<String, Postings> prefixedView(NavigableMap<String, Postings> field, String queryWord) {
+        return field.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false);
+    }
+
+    @SafeVarargs
+    private static List<Postings> concat(List<Postings>... postings) {
+        List<Postings> all = new ArrayList<>();
+        for (List<Postings> postingsOfField : postings) {
+            all.addAll(postingsOfField);
+        }
+        return all;
+    }
+
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(word -> !word.isEmpty()).distinct().toArray(String[]::new);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static final class Entry {
+
+        private final Long id;
+        private final String name;
+        private final String brand;
+        private final BeerType type;
+        private final String[] nameWords;
+
+        private Entry(Long id, String name, String brand, BeerType type, String[] nameWords) {
+            this.id = id;
+            this.name = name;
+            this.brand = brand;
+            this.type = type;
+            this.nameWords = nameWords;
+        }
+
+        // 0 when a query word matches none of the beer's words
+        private int score(String[] queryWords, String[] brandWords) {
+            int total = 0;
+            for (String queryWord : queryWords) {
+                int best = Math.max(match(queryWord, nameWords, NAME_WEIGHT),
+                        Math.max(match(queryWord, brandWords, BRAND_WEIGHT), match(queryWord, TYPE_WORDS.get(type), TYPE_WEIGHT)));
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private static int match(String queryWord, String[] words, int weight) {
+            int best = 0;
+            for (String word : words) {
+                if (word.equals(queryWord)) {
+                    return 2 * weight;
+                }
+                if (word.startsWith(queryWord)) {
+                    best = weight;
+                }
+            }
+            return best;
+        }
+
+        private BeerSearchHitDTO toHit(int score) {
+            return new BeerSearchHitDTO(id, name, brand, type, score);
+        }
+    }
+
+    /** Sorted ids of the beers having one word in one field. */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            int at = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (at < 0) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private void remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    private static final class BrandWords {
+
+        private final String[] words;
+        private int beers;
+
+        private BrandWords(String brand) {
+            this.words = words(brand);
+        }
+    }
+
+    private static final class Cursor {
+
+        private final Postings postings;
+        private int position;
+
+        private Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        private long id() {
+            return postings.ids[position];
+        }
+
+        private boolean advance() {
+            return ++position < postings.size;
+        }
+    }
+}
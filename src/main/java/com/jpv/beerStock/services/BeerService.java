@@ -3,50 +3,237 @@ package com.jpv.beerStock.services;
 import lombok.AllArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
 import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.entity.StockReservation;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockMovementStatus;
 import com.jpv.beerStock.exceptions.BeerAlreadyRegisteredException;
 import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
 import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.exceptions.InvalidCursorException;
+import com.jpv.beerStock.exceptions.ReservationNotFoundException;
 import com.jpv.beerStock.mappers.BeerMapper;
 import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.StockReservationRepository;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_SEARCH_HITS = 20;
+    public static final int MAX_SEARCH_HITS = 100;
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int MAX_STOCK_UPDATE_ATTEMPTS = 8;
+    private static final long MAX_BACKOFF_MILLIS = 64;
+
     private final BeerRepository beerRepository;
+    private final StockReservationRepository reservationRepository;
+    private final BeerStockUpdater beerStockUpdater;
+    private final BeerCache beerCache;
+    private final StockCounterEngine stockEngine;
+    private final BeerEventBus beerEvents;
+    private final StockOutbox stockOutbox;
+    private final BeerSearchIndex searchIndex;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+    @Transactional
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(beerDTO.getName());
         Beer beer = beerMapper.toModel(beerDTO);
         Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        BeerDTO savedBeerDTO = beerMapper.toDTO(savedBeer);
+        beerCache.evictName(savedBeer.getName());
+        searchIndex.add(Collections.singletonList(savedBeerDTO));
+        publish(BeerEventDTO.of(BeerEventType.CREATED, savedBeerDTO, null));
+        return savedBeerDTO;
+    }
+
+    /**
+     * Inserts the beers whose names are not registered yet, with one name lookup
+     * for the whole list, and returns the names that were inserted. Only the
+     * first occurrence of a name repeated in the list is inserted.
+     */
+    @Transactional
+    public Set<String> createBeers(List<BeerDTO> beerDTOs) {
+        Set<String> names = beerDTOs.stream().map(BeerDTO::getName).collect(Collectors.toSet());
+        Set<String> registeredNames = new HashSet<>(beerRepository.findExistingNames(names));
+        Set<String> createdNames = new HashSet<>();
+        List<Beer> beers = new ArrayList<>(beerDTOs.size());
+        for (BeerDTO beerDTO : beerDTOs) {
+            if (registeredNames.add(beerDTO.getName())) {
+                Beer beer = beerMapper.toModel(beerDTO);
+                beer.setId(null);
+                beers.add(beer);
+                createdNames.add(beerDTO.getName());
+            }
+        }
+        beerRepository.insertAllAndDetach(beers);
+        beerCache.evictNames(createdNames);
+        List<BeerDTO> createdBeers = beers.stream().map(beerMapper::toDTO).collect(Collectors.toList());
+        searchIndex.add(createdBeers);
+        publish(createdBeers.stream()
+                .map(beer -> BeerEventDTO.of(BeerEventType.CREATED, beer, null))
+                .collect(Collectors.toList()));
+        return createdNames;
     }
 
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
-                .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
+        BeerDTO foundBeer = beerCache.getByName(name, beerName -> beerRepository.findDTOByName(beerName).orElse(null));
+        if (foundBeer == null) {
+            throw new BeerNotFoundException(name);
+        }
+        return stockEngine.withCurrentStock(foundBeer);
+    }
+
+    /**
+     * Entity tag of the catalogue {@link #listAll()} returns. Read it before
+     * the catalogue: a write in between then only costs a needless refetch.
+     */
+    public String catalogueETag() {
+        return beerEvents.lastEventId();
     }
 
     public List<BeerDTO> listAll() {
-        return beerRepository.findAll()
+        return beerRepository.findAllDTOs()
                 .stream()
-                .map(beerMapper::toDTO)
+                .map(stockEngine::withCurrentStock)
                 .collect(Collectors.toList());
     }
 
+    public List<BeerDTO> findAllByIds(Collection<Long> ids) {
+        return beerRepository.findAllDTOsByIdIn(ids)
+                .stream()
+                .map(stockEngine::withCurrentStock)
+                .collect(Collectors.toList());
+    }
+
+    public List<BeerDTO> listByType(BeerType type) {
+        return beerRepository.findAllDTOsByType(type)
+                .stream()
+                .map(stockEngine::withCurrentStock)
+                .collect(Collectors.toList());
+    }
+
+    public BeerPageDTO listPage(String after, int size, BeerSort sort) throws InvalidCursorException {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // one extra row tells us whether another page exists without a count query
+        List<BeerDTO> beers = findPage(after, sort, PageRequest.of(0, pageSize + 1, sort.getSort()));
+        boolean hasNext = beers.size() > pageSize;
+        List<BeerDTO> pageContent = hasNext ? beers.subList(0, pageSize) : beers;
+        String nextCursor = hasNext ? BeerCursor.of(pageContent.get(pageSize - 1), sort).encode() : null;
+        return BeerPageDTO.builder()
+                .content(pageContent.stream().map(stockEngine::withCurrentStock).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Returns one page of the beers matching the filter, in id order. Filtering
+     * happens in the database, so stock filters see flushed quantities only.
+     */
+    public BeerPageDTO search(BeerFilterDTO filter, String after, int size) throws InvalidCursorException {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Long afterId = after == null || after.isEmpty() ? null : BeerCursor.decode(after, BeerSort.ID).getId();
+        List<BeerDTO> beers = beerRepository.search(filter, afterId, pageSize + 1);
+        boolean hasNext = beers.size() > pageSize;
+        List<BeerDTO> pageContent = hasNext ? beers.subList(0, pageSize) : beers;
+        String nextCursor = hasNext ? BeerCursor.afterId(pageContent.get(pageSize - 1).getId()).encode() : null;
+        return BeerPageDTO.builder()
+                .content(pageContent.stream().map(stockEngine::withCurrentStock).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Beers whose name, brand or type contain words starting with every word
+     * of the query, best match first, from the in-memory index.
+     */
+    public List<BeerSearchHitDTO> searchCatalogue(String query, int limit) {
+        return searchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SEARCH_HITS));
+    }
+
+    public List<BeerStockStatsDTO> stockStatsByType() {
+        return beerRepository.stockStatsByType();
+    }
+
+    public List<BeerStockStatsDTO> stockStatsByBrand() {
+        return beerRepository.stockStatsByBrand();
+    }
+
+    /**
+     * Walks the whole catalogue in id order, one keyset batch at a time, so only
+     * a single batch of beers is ever held in memory.
+     */
+    public void streamAll(Consumer<BeerDTO> consumer) {
+        Pageable batch = PageRequest.of(0, STREAM_BATCH_SIZE, BeerSort.ID.getSort());
+        List<BeerDTO> beers = beerRepository.findAllBy(batch);
+        while (!beers.isEmpty()) {
+            beers.stream().map(stockEngine::withCurrentStock).forEach(consumer);
+            if (beers.size() < STREAM_BATCH_SIZE) {
+                return;
+            }
+            beers = beerRepository.findByIdGreaterThan(beers.get(beers.size() - 1).getId(), batch);
+        }
+    }
+
+    @Transactional
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        try (StockCounterEngine.Exclusive ignored = stockEngine.exclusive()) {
+            Beer beerToDelete = verifyIfExists(id);
+            beerRepository.deleteById(id);
+            beerCache.evictName(beerToDelete.getName());
+            searchIndex.remove(id);
+            publish(BeerEventDTO.of(BeerEventType.DELETED, beerMapper.toDTO(beerToDelete), null));
+        }
+    }
+
+    private List<BeerDTO> findPage(String after, BeerSort sort, Pageable pageable) throws InvalidCursorException {
+        if (after == null || after.isEmpty()) {
+            return beerRepository.findAllBy(pageable);
+        }
+        BeerCursor cursor = BeerCursor.decode(after, sort);
+        switch (sort) {
+            case NAME:
+                return beerRepository.findByNameGreaterThan(cursor.getValue(), pageable);
+            case TYPE:
+                return beerRepository.findByTypeAndIdAfter(cursor.getType(), cursor.getId(), pageable);
+            default:
+                return beerRepository.findByIdGreaterThan(cursor.getId(), pageable);
+        }
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -62,13 +249,175 @@ public class BeerService {
     }
 
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-            beerToIncrementStock.setQuantity(beerToIncrementStock.getQuantity() + quantityToIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
-        }
-        throw new BeerStockExceededException(id, quantityToIncrement);
+        if (stockEngine.isEnabled()) {
+            BeerDTO incrementedBeer = stockEngine.increment(id, quantityToIncrement);
+            beerEvents.publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, incrementedBeer, quantityToIncrement));
+            return incrementedBeer;
+        }
+        BeerDTO incrementedBeer = beerMapper.toDTO(beerStockUpdater.increment(id, quantityToIncrement));
+        beerCache.evictName(incrementedBeer.getName());
+        beerEvents.publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, incrementedBeer, quantityToIncrement));
+        return incrementedBeer;
+    }
+
+    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException {
+        try (StockCounterEngine.Exclusive ignored = stockEngine.exclusive()) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    BeerDTO decrementedBeer = beerMapper.toDTO(beerStockUpdater.decrement(id, quantityToDecrement));
+                    beerCache.evictName(decrementedBeer.getName());
+                    beerEvents.publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, decrementedBeer, -quantityToDecrement));
+                    return decrementedBeer;
+                } catch (OptimisticLockingFailureException e) {
+                    if (!backoff(attempt)) {
+                        throw new BeerStockContentionException(id);
+                    }
+                }
+            }
+        }
+    }
+
+    public StockReservationDTO reserve(Long id, int quantityToReserve, int holdSeconds) throws BeerNotFoundException, BeerStockInsufficientException, BeerStockContentionException {
+        Instant expiresAt = Instant.now().plusSeconds(holdSeconds);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                StockReservation reservation = beerStockUpdater.reserve(id, quantityToReserve, expiresAt);
+                return new StockReservationDTO(reservation.getId(), reservation.getBeerId(), reservation.getQuantity(), reservation.getExpiresAt());
+            } catch (OptimisticLockingFailureException e) {
+                if (!backoff(attempt)) {
+                    throw new BeerStockContentionException(id);
+                }
+            }
+        }
+    }
+
+    public BeerDTO confirmReservation(String reservationId) throws ReservationNotFoundException, BeerStockContentionException {
+        // the confirmation deletes the reservation, whose quantity is the movement
+        Integer delta = reservationRepository.findById(reservationId)
+                .map(reservation -> -reservation.getQuantity())
+                .orElse(null);
+        try (StockCounterEngine.Exclusive ignored = stockEngine.exclusive()) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    BeerDTO confirmedBeer = beerMapper.toDTO(beerStockUpdater.confirm(reservationId, Instant.now()));
+                    beerCache.evictName(confirmedBeer.getName());
+                    beerEvents.publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, confirmedBeer, delta));
+                    return confirmedBeer;
+                } catch (OptimisticLockingFailureException e) {
+                    if (!backoff(attempt)) {
+                        throw new BeerStockContentionException(reservationId);
+                    }
+                }
+            }
+        }
+    }
+
+    public void releaseReservation(String reservationId) throws ReservationNotFoundException, BeerStockContentionException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                beerStockUpdater.release(reservationId);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (!backoff(attempt)) {
+                    throw new BeerStockContentionException(reservationId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies all movements in one transaction. A movement that cannot be applied
+     * does not roll back the others; its status tells the client why.
+     */
+    @Transactional
+    public List<StockMovementResultDTO> applyStockMovements(List<StockMovementDTO> movements) {
+        try (StockCounterEngine.Exclusive ignored = stockEngine.exclusive()) {
+            return applyQuantityDeltas(movements);
+        }
+    }
+
+    private List<StockMovementResultDTO> applyQuantityDeltas(List<StockMovementDTO> movements) {
+        int[] updated = beerRepository.applyQuantityDeltas(movements);
+        Set<Long> rejectedIds = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejectedIds.add(movements.get(i).getId());
+            }
+        }
+        Set<Long> existingIds = rejectedIds.isEmpty()
+                ? rejectedIds
+                : new HashSet<>(beerRepository.findExistingIds(rejectedIds));
+        List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+        Set<Long> appliedIds = new HashSet<>();
+        List<BeerEventDTO> events = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            StockMovementDTO movement = movements.get(i);
+            StockMovementStatus status = movementStatus(movement, updated[i], existingIds);
+            if (status == StockMovementStatus.APPLIED) {
+                appliedIds.add(movement.getId());
+                events.add(BeerEventDTO.builder()
+                        .type(BeerEventType.STOCK_CHANGED)
+                        .beerId(movement.getId())
+                        .delta(movement.getDelta())
+                        .build());
+            }
+            results.add(new StockMovementResultDTO(movement.getId(), movement.getDelta(), status));
+        }
+        beerCache.evictIds(appliedIds);
+        publish(events);
+        return results;
+    }
+
+    private void publish(BeerEventDTO event) {
+        publish(Collections.singletonList(event));
+    }
+
+    /**
+     * Appends the events to the outbox in the caller's transaction and streams
+     * them once it commits. Stock changes made through {@link BeerStockUpdater}
+     * reach the outbox there, in its own transactions.
+     */
+    private void publish(List<BeerEventDTO> events) {
+        stockOutbox.appendAll(events);
+        beerEvents.publishAll(events);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.reservation.sweep-interval-ms:5000}")
+    public void releaseExpiredReservations() {
+        for (StockReservation reservation : reservationRepository.findByExpiresAtBefore(Instant.now())) {
+            try {
+                releaseReservation(reservation.getId());
+            } catch (ReservationNotFoundException | BeerStockContentionException e) {
+                // confirmed or released meanwhile, or still contended: the next sweep picks it up
+            }
+        }
+    }
+
+    private StockMovementStatus movementStatus(StockMovementDTO movement, int updated, Set<Long> existingIds) {
+        if (updated != 0) {
+            return StockMovementStatus.APPLIED;
+        }
+        if (!existingIds.contains(movement.getId())) {
+            return StockMovementStatus.NOT_FOUND;
+        }
+        return movement.getDelta() > 0 ? StockMovementStatus.EXCEEDED : StockMovementStatus.INSUFFICIENT;
+    }
+
+    /**
+     * Sleeps a random, exponentially growing time before the next optimistic
+     * attempt. Returns false once the attempts are exhausted.
+     */
+    private boolean backoff(int attempt) {
+        if (attempt >= MAX_STOCK_UPDATE_ATTEMPTS) {
+            return false;
+        }
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, 1L << attempt);
+        try {
+            Thread.sleep(1 + ThreadLocalRandom.current().nextLong(ceiling));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
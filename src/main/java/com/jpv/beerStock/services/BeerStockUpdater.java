@@ -0,0 +1,148 @@
+package com.jpv.beerStock.services;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.entity.StockEngineCheckpoint;
+import com.jpv.beerStock.entity.StockReservation;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.exceptions.ReservationNotFoundException;
+import com.jpv.beerStock.mappers.BeerMapper;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.StockEngineCheckpointRepository;
+import com.jpv.beerStock.repositories.StockReservationRepository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Single optimistic attempts at taking stock out of a beer. Each method runs in
+ * its own transaction and fails with an optimistic locking exception when the
+ * beer version changed underneath it; {@link BeerService} owns the retries.
+ * Also commits database increments and the flushes of the
+ * {@link StockCounterEngine}. Every stock change is appended to the
+ * {@link StockOutbox} in the transaction that makes it.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockUpdater {
+
+    private final BeerRepository beerRepository;
+    private final StockReservationRepository reservationRepository;
+    private final StockEngineCheckpointRepository checkpointRepository;
+    private final StockOutbox stockOutbox;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Transactional
+    public Beer increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
+        if (beerRepository.incrementQuantity(id, quantityToIncrement) == 0) {
+            verifyIfExists(id);
+            throw new BeerStockExceededException(id, quantityToIncrement);
+        }
+        Beer beer = verifyIfExists(id);
+        stockOutbox.append(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, beerMapper.toDTO(beer), quantityToIncrement));
+        return beer;
+    }
+
+    @Transactional
+    public Beer decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockInsufficientException {
+        Beer beer = verifyAvailable(id, quantityToDecrement);
+        beer.setQuantity(beer.getQuantity() - quantityToDecrement);
+        Beer decrementedBeer = beerRepository.saveAndFlush(beer);
+        stockOutbox.append(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, beerMapper.toDTO(decrementedBeer), -quantityToDecrement));
+        return decrementedBeer;
+    }
+
+    @Transactional
+    public StockReservation reserve(Long id, int quantityToReserve, Instant expiresAt) throws BeerNotFoundException, BeerStockInsufficientException {
+        Beer beer = verifyAvailable(id, quantityToReserve);
+        beer.setReserved(beer.getReserved() + quantityToReserve);
+        beerRepository.saveAndFlush(beer);
+        return reservationRepository.save(new StockReservation(UUID.randomUUID().toString(), id, quantityToReserve, expiresAt));
+    }
+
+    @Transactional
+    public Beer confirm(String reservationId, Instant now) throws ReservationNotFoundException {
+        StockReservation reservation = verifyReservationExists(reservationId);
+        if (reservation.getExpiresAt().isBefore(now)) {
+            release(reservation);
+            throw new ReservationNotFoundException(reservationId);
+        }
+        Beer beer = beerRepository.findById(reservation.getBeerId())
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+        beer.setQuantity(beer.getQuantity() - reservation.getQuantity());
+        beer.setReserved(beer.getReserved() - reservation.getQuantity());
+        reservationRepository.delete(reservation);
+        Beer confirmedBeer = beerRepository.saveAndFlush(beer);
+        stockOutbox.append(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, beerMapper.toDTO(confirmedBeer), -reservation.getQuantity()));
+        return confirmedBeer;
+    }
+
+    /**
+     * Adds flushed increments and records the write-ahead log sequence they
+     * cover, in a transaction of its own so it commits even when the caller's
+     * transaction later rolls back.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void applyFlushedIncrements(Map<Long, Integer> deltas, long walSequence) {
+        beerRepository.addQuantities(deltas);
+        checkpointRepository.save(new StockEngineCheckpoint(StockEngineCheckpoint.ID, walSequence));
+        // one event per beer for all its increments since the last flush
+        stockOutbox.appendAll(deltas.entrySet().stream()
+                .map(delta -> BeerEventDTO.builder()
+                        .type(BeerEventType.STOCK_CHANGED)
+                        .beerId(delta.getKey())
+                        .delta(delta.getValue())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public long flushedSequence() {
+        return checkpointRepository.findById(StockEngineCheckpoint.ID)
+                .map(StockEngineCheckpoint::getSequence)
+                .orElse(0L);
+    }
+
+    @Transactional
+    public void release(String reservationId) throws ReservationNotFoundException {
+        release(verifyReservationExists(reservationId));
+    }
+
+    private void release(StockReservation reservation) {
+        beerRepository.findById(reservation.getBeerId()).ifPresent(beer -> {
+            beer.setReserved(beer.getReserved() - reservation.getQuantity());
+            beerRepository.saveAndFlush(beer);
+        });
+        reservationRepository.delete(reservation);
+    }
+
+    private Beer verifyIfExists(Long id) throws BeerNotFoundException {
+        return beerRepository.findById(id)
+                .orElseThrow(() -> new BeerNotFoundException(id));
+    }
+
+    private Beer verifyAvailable(Long id, int quantity) throws BeerNotFoundException, BeerStockInsufficientException {
+        Beer beer = verifyIfExists(id);
+        if (beer.getQuantity() - beer.getReserved() < quantity) {
+            throw new BeerStockInsufficientException(id, quantity);
+        }
+        return beer;
+    }
+
+    private StockReservation verifyReservationExists(String reservationId) throws ReservationNotFoundException {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+    }
+}
@@ -0,0 +1,169 @@
+package com.jpv.beerStock.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable copy of the catalogue, whole and by type, held both as beers and
+ * as their JSON, plain and gzipped, so that listing it costs a reference read
+ * and a byte copy. Each copy is tagged with the catalogue version it was
+ * built from; the refresh rebuilds and swaps it once the version has moved.
+ *
+ * <p>Readers compare the tag with the current version, so they know whether
+ * the copy is current and, if not, since when it may have been behind. Past
+ * the maximum staleness they get no copy and read the database instead.
+ */
+public class CatalogueSnapshot {
+
+    private final Supplier<String> catalogueVersion;
+    private final Supplier<List<BeerDTO>> catalogueLoader;
+    private final ObjectWriter listWriter;
+    private final long maxStalenessNanos;
+    private final AtomicReference<View> current = new AtomicReference<>();
+    private final Timer rebuildTimer;
+
+    public CatalogueSnapshot(Supplier<String> catalogueVersion, Supplier<List<BeerDTO>> catalogueLoader,
+            ObjectMapper objectMapper, Duration maxStaleness, MeterRegistry meterRegistry) {
+        this.catalogueVersion = catalogueVersion;
+        this.catalogueLoader = catalogueLoader;
+        this.listWriter = objectMapper == null ? null
+                : objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, BeerDTO.class));
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.rebuildTimer = Timer.builder("beerstock.snapshot.rebuild")
+                .description("Time to load, split and serialize the catalogue snapshot")
+                .register(meterRegistry);
+    }
+
+    public static CatalogueSnapshot disabled() {
+        return new CatalogueSnapshot(null, null, null, Duration.ZERO, new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return catalogueLoader != null;
+    }
+
+    /**
+     * Rebuilds the copy if the catalogue changed since it was built; otherwise
+     * only records that it is still current.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.snapshot.refresh-interval-ms:1000}")
+    public synchronized void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // read before the beers, so the copy holds at least what this version does
+        String version = catalogueVersion.get();
+        View view = current.get();
+        if (view != null && view.version.equals(version)) {
+            view.verifiedAtNanos = start;
+            return;
+        }
+        current.set(build(version, start));
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The copy of the whole catalogue, or of one type when given, or null
+     * when there is none within the maximum staleness.
+     */
+    public Copy read(BeerType type) {
+        View view = current.get();
+        if (view == null) {
+            return null;
+        }
+        long stalenessNanos = view.version.equals(catalogueVersion.get()) ? 0 : System.nanoTime() - view.verifiedAtNanos;
+        if (stalenessNanos > maxStalenessNanos) {
+            return null;
+        }
+        return new Copy(type == null ? view.all : view.byType.get(type), view.version,
+                TimeUnit.NANOSECONDS.toMillis(stalenessNanos));
+    }
+
+    private View build(String version, long start) {
+        List<BeerDTO> beers = catalogueLoader.get();
+        Map<BeerType, List<BeerDTO>> beersByType = new EnumMap<>(BeerType.class);
+        for (BeerType type : BeerType.values()) {
+            beersByType.put(type, new ArrayList<>());
+        }
+        for (BeerDTO beer : beers) {
+            beersByType.get(beer.getType()).add(beer);
+        }
+        Map<BeerType, Slice> byType = new EnumMap<>(BeerType.class);
+        beersByType.forEach((type, beersOfType) -> byType.put(type, slice(beersOfType)));
+        return new View(version, slice(beers), byType, start);
+    }
+
+    private Slice slice(List<BeerDTO> beers) {
+        try {
+            byte[] json = listWriter.writeValueAsBytes(beers);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+            return new Slice(Collections.unmodifiableList(beers), json, gzipped.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Beers of the copy and their JSON; none of them is to be modified. */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Slice {
+
+        private final List<BeerDTO> beers;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Copy {
+
+        private final Slice slice;
+        private final String version;
+        // how long the copy may have been behind the catalogue, 0 when it is current
+        private final long stalenessMillis;
+    }
+
+    private static final class View {
+
+        private final String version;
+        private final Slice all;
+        private final Map<BeerType, Slice> byType;
+        private volatile long verifiedAtNanos;
+
+        private View(String version, Slice all, Map<BeerType, Slice> byType, long verifiedAtNanos) {
+            this.version = version;
+            this.all = all;
+            this.byType = byType;
+            this.verifiedAtNanos = verifiedAtNanos;
+        }
+    }
+}
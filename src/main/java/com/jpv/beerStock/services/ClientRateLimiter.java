@@ -0,0 +1,46 @@
+package com.jpv.beerStock.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jpv.beerStock.enums.RequestCost;
+
+/**
+ * One {@link TokenBucket} per client and request cost. Buckets of clients that
+ * went quiet are dropped by the cache and start full when they come back.
+ */
+public class ClientRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<RequestCost, Budget> budgets;
+
+    public ClientRateLimiter(Cache<String, TokenBucket> buckets, Map<RequestCost, Budget> budgets) {
+        this.buckets = buckets;
+        this.budgets = new EnumMap<>(budgets);
+    }
+
+    /**
+     * Returns 0 when the request may go ahead, or the nanoseconds until the
+     * client has a token for it again.
+     */
+    public long tryAcquire(String client, RequestCost cost, long nowNanos) {
+        Budget budget = budgets.get(cost);
+        if (budget == null) {
+            return 0;
+        }
+        return buckets.get(cost.name() + ':' + client, key -> new TokenBucket(budget.perSecond, budget.burst, nowNanos))
+                .tryAcquire(nowNanos);
+    }
+
+    public static final class Budget {
+
+        private final double perSecond;
+        private final int burst;
+
+        public Budget(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.jpv.beerStock.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.jpv.beerStock.entity.OutboxEvent;
+
+/**
+ * Appends each event as one line of JSON and forces the file before a batch
+ * is acknowledged. A batch resent after a crash shows up twice in the file.
+ */
+public class FileOutboxSink implements OutboxSink, Closeable {
+
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            // the payload is already JSON, so the line is put together around it
+            lines.append("{\"id\":").append(event.getId())
+                    .append(",\"createdAt\":\"").append(event.getCreatedAt())
+                    .append("\",\"event\":").append(event.getPayload())
+                    .append("}\n");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,126 @@
+package com.jpv.beerStock.services;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jpv.beerStock.exceptions.BeerStockBusinessException;
+import com.jpv.beerStock.exceptions.IdempotencyKeyReusedException;
+import com.jpv.beerStock.exceptions.IdempotentRequestInProgressException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Results of writes sent with an {@code Idempotency-Key}, so that a client
+ * retrying after a timeout gets the first result back instead of applying the
+ * write twice. The first request with a key runs the call; identical requests
+ * arriving meanwhile wait for its result, up to the in-flight timeout. A call
+ * that fails changed nothing, so its key is forgotten and a retry runs again.
+ */
+public class IdempotencyStore {
+
+    private final Cache<String, Execution> executions;
+    private final Duration inFlightTimeout;
+    private final Counter replays;
+
+    public IdempotencyStore(Cache<String, Execution> executions, Duration inFlightTimeout, MeterRegistry meterRegistry) {
+        this.executions = executions;
+        this.inFlightTimeout = inFlightTimeout;
+        this.replays = Counter.builder("beerstock.idempotency.replays")
+                .description("Requests answered with the stored result of an earlier one with the same key")
+                .register(meterRegistry);
+    }
+
+    public static IdempotencyStore disabled() {
+        return new IdempotencyStore(null, Duration.ZERO, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Runs the call once per operation and key; {@code request} must be equal
+     * on every retry. Without a key the call simply runs.
+     */
+    public <T> Result<T> execute(String operation, String idempotencyKey, Object request, Call<T> call)
+            throws BeerStockBusinessException {
+        if (executions == null || idempotencyKey == null) {
+            return new Result<>(call.call(), false);
+        }
+        String storeKey = operation + ' ' + idempotencyKey;
+        Execution execution = new Execution(request);
+        Execution first = executions.asMap().putIfAbsent(storeKey, execution);
+        if (first == null) {
+            return new Result<>(run(storeKey, execution, call), false);
+        }
+        if (!first.request.equals(request)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        T result = awaitResult(first, idempotencyKey);
+        replays.increment();
+        return new Result<>(result, true);
+    }
+
+    private <T> T run(String storeKey, Execution execution, Call<T> call) throws BeerStockBusinessException {
+        try {
+            T result = call.call();
+            execution.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            executions.asMap().remove(storeKey, execution);
+            execution.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T awaitResult(Execution first, String idempotencyKey) throws BeerStockBusinessException {
+        try {
+            return (T) first.result.get(inFlightTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(idempotencyKey);
+        } catch (ExecutionException e) {
+            // the waiting retry fails the way the first request did
+            Throwable cause = e.getCause();
+            if (cause instanceof BeerStockBusinessException) {
+                throw (BeerStockBusinessException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Call<T> {
+
+        T call() throws BeerStockBusinessException;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Result<T> {
+
+        private final T value;
+        private final boolean replayed;
+    }
+
+    public static final class Execution {
+
+        private final Object request;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Execution(Object request) {
+            this.request = request;
+        }
+    }
+}
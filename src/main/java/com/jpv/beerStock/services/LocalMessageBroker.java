@@ -0,0 +1,37 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.jpv.beerStock.entity.OutboxEvent;
+
+/**
+ * Bounded in-process queue standing in for a message broker, for local runs
+ * and tests. A batch that does not fit is rejected whole, which leaves it in
+ * the outbox until a consumer makes room.
+ */
+public class LocalMessageBroker implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public LocalMessageBroker(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> events) throws IOException {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IOException("Local broker is full");
+        }
+        queue.addAll(events);
+    }
+
+    public List<OutboxEvent> poll(int maxEvents) {
+        List<OutboxEvent> events = new ArrayList<>();
+        queue.drainTo(events, maxEvents);
+        return events;
+    }
+}
@@ -0,0 +1,23 @@
+package com.jpv.beerStock.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jpv.beerStock.dto.StockAlertDTO;
+import com.jpv.beerStock.enums.StockAlertStatus;
+
+public class LoggingAlertSink implements StockAlertSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingAlertSink.class);
+
+    @Override
+    public void send(StockAlertDTO alert) {
+        if (alert.getStatus() == StockAlertStatus.FIRING) {
+            LOGGER.warn("{} for beer {} ({}): {} of {}, threshold {}%", alert.getType(), alert.getBeerId(), alert.getName(),
+                    alert.getQuantity(), alert.getMax(), alert.getThresholdPercent());
+        } else {
+            LOGGER.info("{} resolved for beer {} ({}): {} of {}", alert.getType(), alert.getBeerId(), alert.getName(),
+                    alert.getQuantity(), alert.getMax());
+        }
+    }
+}
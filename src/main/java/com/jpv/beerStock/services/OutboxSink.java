@@ -0,0 +1,21 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.jpv.beerStock.entity.OutboxEvent;
+
+/**
+ * Destination of the relayed outbox events. A batch counts as delivered only
+ * when {@link #send(List)} returns; after a failure the whole batch is sent
+ * again, so consumers must tolerate duplicates and can drop them by event id.
+ */
+public interface OutboxSink {
+
+    void send(List<OutboxEvent> events) throws IOException;
+
+    /** Stands in while the outbox is off, so no broker or file is set up. */
+    static OutboxSink disabled() {
+        return events -> { };
+    }
+}
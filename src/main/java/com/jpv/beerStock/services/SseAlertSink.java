@@ -0,0 +1,53 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.jpv.beerStock.dto.StockAlertDTO;
+
+/**
+ * Streams alerts to the clients of {@code /api/v1/alerts/stream}, named by
+ * their type. Alerts are rare next to catalogue events, so, unlike
+ * {@link BeerEventBus}, they are written straight from the engine's thread,
+ * with no history to resume from; a client that reconnects gets the alerts
+ * still firing from {@code GET /api/v1/alerts}.
+ */
+public class SseAlertSink implements StockAlertSink {
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final long streamTimeoutMillis;
+
+    public SseAlertSink(Duration streamTimeout) {
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    @Override
+    public void send(StockAlertDTO alert) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(alert.getType().name()).data(alert, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.jpv.beerStock.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.StockAlertDTO;
+import com.jpv.beerStock.enums.StockAlertStatus;
+import com.jpv.beerStock.enums.StockAlertType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Evaluates the {@link StockAlertRules} on the beers each committed change
+ * touched, as {@link BeerEventBus} hands the events over. The events are only
+ * queued there; one thread of its own drains them, reads the touched beers
+ * back in one query, with their current stock, and compares each with its
+ * thresholds, so no write waits for it and nothing scans the catalogue.
+ *
+ * <p>An alert fires when the quantity crosses a threshold and resolves only
+ * once it is back past the threshold by {@code hysteresisPercent} of max, so
+ * a beer moving around the threshold does not fire and resolve on every
+ * change. An alert firing again within {@code dedupWindow} of the last one
+ * sent for the beer is held back: a resolution before the window ends drops
+ * both, otherwise it is sent once the window ends. The firing alerts live
+ * in this instance and start empty: after a restart a beer alerts again on
+ * its next change.
+ */
+public class StockAlertEngine {
+
+    private final StockAlertRules rules;
+    private final Function<Collection<Long>, List<BeerDTO>> beerLoader;
+    private final List<StockAlertSink> sinks;
+    private final int hysteresisPercent;
+    private final long dedupWindowNanos;
+    private final ExecutorService evaluator;
+    private final LongSupplier nanoTime;
+    private final Queue<Long> touched = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Map<Long, Map<StockAlertType, StockAlertDTO>> firing = new ConcurrentHashMap<>();
+    // only touched by the evaluator thread
+    private final Map<Long, Map<StockAlertType, Sent>> sent = new HashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter suppressed;
+    private final Counter failures;
+
+    public StockAlertEngine(StockAlertRules rules, Function<Collection<Long>, List<BeerDTO>> beerLoader,
+            List<StockAlertSink> sinks, int hysteresisPercent, Duration dedupWindow, ExecutorService evaluator,
+            LongSupplier nanoTime, MeterRegistry meterRegistry) {
+        this.rules = rules;
+        this.beerLoader = beerLoader;
+        this.sinks = sinks;
+        this.hysteresisPercent = hysteresisPercent;
+        this.dedupWindowNanos = dedupWindow.toNanos();
+        this.evaluator = evaluator;
+        this.nanoTime = nanoTime;
+        this.meterRegistry = meterRegistry;
+        this.suppressed = Counter.builder("beerstock.alerts.suppressed")
+                .description("Alerts not sent because the beer fired and resolved again within the dedup window")
+                .register(meterRegistry);
+        this.failures = Counter.builder("beerstock.alerts.failures")
+                .description("Evaluations or deliveries that failed; the beers are evaluated again on their next change")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.alerts.firing", firing, alerts -> alerts.values().stream().mapToInt(Map::size).sum())
+                .description("Alerts firing now")
+                .register(meterRegistry);
+    }
+
+    public static StockAlertEngine disabled() {
+        return new StockAlertEngine(null, null, Collections.emptyList(), 0, Duration.ZERO, null, System::nanoTime, new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return evaluator != null;
+    }
+
+    /**
+     * Queues the beers of committed events for evaluation; called by
+     * {@link BeerEventBus} and returns at once.
+     */
+    public void onEvents(List<BeerEventDTO> events) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (BeerEventDTO event : events) {
+            touched.add(event.getBeerId());
+        }
+        if (draining.compareAndSet(false, true)) {
+            evaluator.execute(this::drain);
+        }
+    }
+
+    /**
+     * Sends the alerts held back by the dedup window whose window has ended;
+     * they are still firing, or their resolution would have dropped them.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.alerts.held-check-interval-ms:1000}")
+    public void sendHeld() {
+        if (!isEnabled() || evaluator.isShutdown()) {
+            return;
+        }
+        try {
+            evaluator.execute(this::sendHeldDue);
+        } catch (RejectedExecutionException e) {
+            // shut down since the check above: the context is closing
+        }
+    }
+
+    public List<StockAlertDTO> firing() {
+        List<StockAlertDTO> alerts = new ArrayList<>();
+        firing.values().forEach(alertsOfBeer -> alerts.addAll(alertsOfBeer.values()));
+        return alerts;
+    }
+
+    public void close() {
+        if (isEnabled()) {
+            evaluator.shutdown();
+        }
+    }
+
+    private void drain() {
+        draining.set(false);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id = touched.poll(); id != null; id = touched.poll()) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, BeerDTO> beers = new HashMap<>();
+            beerLoader.apply(ids).forEach(beer -> beers.put(beer.getId(), beer));
+            for (Long id : ids) {
+                BeerDTO beer = beers.get(id);
+                if (beer == null) {
+                    // deleted: its alerts go without a resolution
+                    firing.remove(id);
+                    sent.remove(id);
+                } else {
+                    evaluate(beer);
+                }
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+    }
+
+    private void evaluate(BeerDTO beer) {
+        StockAlertRules.Thresholds thresholds = rules.resolve(beer);
+        long percentOfMax = (long) beer.getQuantity() * 100;
+        long max = beer.getMax();
+        Integer low = thresholds.getLowPercent();
+        Integer nearMax = thresholds.getNearMaxPercent();
+        update(beer, StockAlertType.LOW_STOCK, low,
+                low != null && percentOfMax < low * max,
+                low == null || percentOfMax >= (low + hysteresisPercent) * max);
+        update(beer, StockAlertType.NEAR_MAX, nearMax,
+                nearMax != null && percentOfMax >= nearMax * max,
+                nearMax == null || percentOfMax < (nearMax - hysteresisPercent) * max);
+    }
+
+    private void update(BeerDTO beer, StockAlertType type, Integer threshold, boolean crossed, boolean clear) {
+        Map<StockAlertType, StockAlertDTO> firingOfBeer = firing.computeIfAbsent(beer.getId(), id -> new ConcurrentHashMap<>());
+        StockAlertDTO current = firingOfBeer.get(type);
+        if (current == null && crossed) {
+            StockAlertDTO alert = alert(beer, type, StockAlertStatus.FIRING, threshold);
+            firingOfBeer.put(type, alert);
+            notify(beer.getId(), type, alert);
+        } else if (current != null && clear) {
+            firingOfBeer.remove(type);
+            notify(beer.getId(), type, alert(beer, type, StockAlertStatus.RESOLVED, current.getThresholdPercent()));
+        }
+        if (firingOfBeer.isEmpty()) {
+            firing.remove(beer.getId(), firingOfBeer);
+        }
+    }
+
+    private void notify(Long beerId, StockAlertType type, StockAlertDTO alert) {
+        Map<StockAlertType, Sent> sentOfBeer = sent.computeIfAbsent(beerId, id -> new EnumMap<>(StockAlertType.class));
+        Sent last = sentOfBeer.get(type);
+        long now = nanoTime.getAsLong();
+        if (alert.getStatus() == StockAlertStatus.FIRING) {
+            if (last != null && now - last.firedAtNanos < dedupWindowNanos) {
+                last.held = alert;
+                return;
+            }
+            sentOfBeer.put(type, new Sent(now));
+        } else if (last != null && last.held != null) {
+            // the held firing and this resolution
+            last.held = null;
+            suppressed.increment(2);
+            return;
+        }
+        send(type, alert);
+    }
+
+    private void sendHeldDue() {
+        long now = nanoTime.getAsLong();
+        for (Map<StockAlertType, Sent> sentOfBeer : sent.values()) {
+            for (Map.Entry<StockAlertType, Sent> last : sentOfBeer.entrySet()) {
+                StockAlertDTO held = last.getValue().held;
+                if (held != null && now - last.getValue().firedAtNanos >= dedupWindowNanos) {
+                    last.setValue(new Sent(now));
+                    send(last.getKey(), held);
+                }
+            }
+        }
+    }
+
+    private void send(StockAlertType type, StockAlertDTO alert) {
+        meterRegistry.counter("beerstock.alerts.sent", "type", type.name(), "status", alert.getStatus().name()).increment();
+        for (StockAlertSink sink : sinks) {
+            try {
+                sink.send(alert);
+            } catch (RuntimeException e) {
+                failures.increment();
+            }
+        }
+    }
+
+    private static StockAlertDTO alert(BeerDTO beer, StockAlertType type, StockAlertStatus status, Integer threshold) {
+        return StockAlertDTO.builder()
+                .type(type)
+                .status(status)
+                .beerId(beer.getId())
+                .name(beer.getName())
+                .brand(beer.getBrand())
+                .beerType(beer.getType())
+                .quantity(beer.getQuantity())
+                .max(beer.getMax())
+                .thresholdPercent(threshold)
+                .at(Instant.now())
+                .build();
+    }
+
+    private static final class Sent {
+
+        private final long firedAtNanos;
+        // fired again within the dedup window: sent when the window ends, dropped if it resolves first
+        private StockAlertDTO held;
+
+        private Sent(long firedAtNanos) {
+            this.firedAtNanos = firedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.jpv.beerStock.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Low-stock and near-max thresholds, as percentages of each beer's max, set
+ * per beer name, per brand, per type and for the whole catalogue. Each
+ * threshold comes from the most specific level that sets it; one set nowhere
+ * is off for that beer.
+ */
+public class StockAlertRules {
+
+    private final Thresholds defaults;
+    private final Map<String, Thresholds> byName;
+    private final Map<String, Thresholds> byBrand;
+    private final Map<BeerType, Thresholds> byType;
+
+    public StockAlertRules(Thresholds defaults, Map<String, Thresholds> byName, Map<String, Thresholds> byBrand,
+            Map<BeerType, Thresholds> byType) {
+        this.defaults = defaults;
+        this.byName = byName;
+        this.byBrand = byBrand;
+        this.byType = byType;
+    }
+
+    public static StockAlertRules of(Thresholds defaults) {
+        return new StockAlertRules(defaults, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    public Thresholds resolve(BeerDTO beer) {
+        Thresholds[] levels = { byName.get(beer.getName()), byBrand.get(beer.getBrand()), byType.get(beer.getType()), defaults };
+        return new Thresholds(first(levels, Thresholds::getLowPercent), first(levels, Thresholds::getNearMaxPercent));
+    }
+
+    private static Integer first(Thresholds[] levels, Function<Thresholds, Integer> threshold) {
+        for (Thresholds level : levels) {
+            if (level != null && threshold.apply(level) != null) {
+                return threshold.apply(level);
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Thresholds {
+
+        private final Integer lowPercent;
+        private final Integer nearMaxPercent;
+    }
+}
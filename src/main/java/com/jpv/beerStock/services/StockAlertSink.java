@@ -0,0 +1,13 @@
+package com.jpv.beerStock.services;
+
+import com.jpv.beerStock.dto.StockAlertDTO;
+
+/**
+ * Destination of the alerts sent by the {@link StockAlertEngine}, called from
+ * its single thread. Delivery is best effort: a sink that fails loses the
+ * alert and does not keep the other sinks from getting it.
+ */
+public interface StockAlertSink {
+
+    void send(StockAlertDTO alert);
+}
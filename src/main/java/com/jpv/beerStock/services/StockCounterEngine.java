@@ -0,0 +1,287 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.mappers.BeerMapper;
+import com.jpv.beerStock.repositories.BeerRepository;
+
+/**
+ * Write-behind engine for increments. Each beer it has seen gets an in-memory
+ * counter that enforces {@code max} with compare-and-set; an increment is
+ * acknowledged once it is in the write-ahead log, and the counters' changes
+ * are coalesced into one batched update per beer on every flush.
+ *
+ * <p>Increments share a read lock; a flush takes the write lock only to drain
+ * the counters and seal the log. Every other stock write runs inside
+ * {@link #exclusive()}, which flushes first and drops the counters once it
+ * commits, so they are reloaded with its changes.
+ */
+public class StockCounterEngine {
+
+    /** Held around a stock write that bypasses the engine. */
+    public interface Exclusive extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Exclusive NO_EXCLUSIVE = () -> { };
+
+    private final BeerRepository beerRepository;
+    private final BeerStockUpdater beerStockUpdater;
+    private final BeerCache beerCache;
+    private final StockWriteAheadLog writeAheadLog;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final ConcurrentMap<Long, StockCell> cells = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock cellsLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StockCounterEngine(BeerRepository beerRepository, BeerStockUpdater beerStockUpdater, BeerCache beerCache,
+            StockWriteAheadLog writeAheadLog) {
+        this.beerRepository = beerRepository;
+        this.beerStockUpdater = beerStockUpdater;
+        this.beerCache = beerCache;
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    public static StockCounterEngine disabled() {
+        return new StockCounterEngine(null, null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return writeAheadLog != null;
+    }
+
+    /**
+     * Replays the increments a previous run logged but did not flush.
+     */
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        long sequence = writeAheadLog.open(beerStockUpdater.flushedSequence(),
+                (beerId, delta) -> deltas.merge(beerId, delta, Integer::sum));
+        if (!deltas.isEmpty()) {
+            beerStockUpdater.applyFlushedIncrements(deltas, sequence);
+        }
+        writeAheadLog.deleteSealed();
+    }
+
+    public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
+        StockCell cell;
+        int quantity;
+        long sequence;
+        cellsLock.readLock().lock();
+        try {
+            cell = cell(id);
+            quantity = cell.add(quantityToIncrement);
+            if (quantity < 0) {
+                throw new BeerStockExceededException(id, quantityToIncrement);
+            }
+            try {
+                sequence = writeAheadLog.append(id, quantityToIncrement);
+            } catch (IOException e) {
+                cell.add(-quantityToIncrement);
+                throw new UncheckedIOException("Could not log a stock increment", e);
+            }
+        } finally {
+            cellsLock.readLock().unlock();
+        }
+        try {
+            writeAheadLog.sync(sequence);
+        } catch (IOException e) {
+            revert(id, quantityToIncrement);
+            throw new UncheckedIOException("Could not sync the stock log", e);
+        }
+        return cell.snapshot(quantity);
+    }
+
+    /**
+     * Takes back an increment whose record could not be synced, so a retry of
+     * the failed request does not apply it twice. The counter is looked up
+     * again, as an exclusive write may have flushed and dropped it meanwhile.
+     */
+    private void revert(Long id, int quantityToIncrement) {
+        cellsLock.readLock().lock();
+        try {
+            cell(id).add(-quantityToIncrement);
+            // the replay sums the records, so this one cancels the unsynced one
+            writeAheadLog.append(id, -quantityToIncrement);
+        } catch (BeerNotFoundException | IOException e) {
+            // deleted meanwhile, or the log takes no records at all: nothing left to take back
+        } finally {
+            cellsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the beer with the engine's quantity, which includes
+     * increments not flushed yet, or the beer itself when the engine has no
+     * counter for it.
+     */
+    public BeerDTO withCurrentStock(BeerDTO beerDTO) {
+        StockCell cell = isEnabled() ? cells.get(beerDTO.getId()) : null;
+        if (cell == null) {
+            return beerDTO;
+        }
+        return new BeerDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(), beerDTO.getMax(),
+                cell.quantity.get(), beerDTO.getType());
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.stock-engine.flush-interval-ms:1000}")
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and blocks increments until the returned handle is closed, or
+     * until the surrounding transaction completes when there is one.
+     */
+    public Exclusive exclusive() {
+        if (!isEnabled()) {
+            return NO_EXCLUSIVE;
+        }
+        flushLock.lock();
+        cellsLock.writeLock().lock();
+        try {
+            flushPending();
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        return () -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        release();
+                    }
+                });
+            } else {
+                release();
+            }
+        };
+    }
+
+    public void close() throws IOException {
+        if (isEnabled()) {
+            flush();
+            writeAheadLog.close();
+        }
+    }
+
+    private StockCell cell(Long id) throws BeerNotFoundException {
+        StockCell cell = cells.get(id);
+        if (cell != null) {
+            return cell;
+        }
+        StockCell loaded = new StockCell(beerMapper.toDTO(beerRepository.findById(id)
+                .orElseThrow(() -> new BeerNotFoundException(id))));
+        StockCell raced = cells.putIfAbsent(id, loaded);
+        return raced == null ? loaded : raced;
+    }
+
+    private void flushPending() {
+        Map<Long, Integer> deltas = new HashMap<>();
+        long sequence;
+        cellsLock.writeLock().lock();
+        try {
+            cells.forEach((id, cell) -> {
+                int delta = cell.pending.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(id, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+            sequence = writeAheadLog.seal();
+        } catch (IOException e) {
+            restore(deltas);
+            throw new UncheckedIOException("Could not seal the stock log", e);
+        } finally {
+            cellsLock.writeLock().unlock();
+        }
+        try {
+            beerStockUpdater.applyFlushedIncrements(deltas, sequence);
+        } catch (RuntimeException e) {
+            // still in the sealed segments, so the next flush or a restart applies them
+            restore(deltas);
+            throw e;
+        }
+        try {
+            writeAheadLog.deleteSealed();
+        } catch (IOException e) {
+            // harmless: a restart skips records at or below the checkpoint
+        }
+        beerCache.evictIds(deltas.keySet());
+    }
+
+    private void restore(Map<Long, Integer> deltas) {
+        deltas.forEach((id, delta) -> cells.get(id).pending.addAndGet(delta));
+    }
+
+    private void release() {
+        cells.clear();
+        cellsLock.writeLock().unlock();
+        flushLock.unlock();
+    }
+
+    private static final class StockCell {
+
+        private final BeerDTO beer;
+        private final AtomicInteger quantity;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private StockCell(BeerDTO beer) {
+            this.beer = beer;
+            this.quantity = new AtomicInteger(beer.getQuantity());
+        }
+
+        /**
+         * Returns the new quantity, or -1 without changing anything when the
+         * delta would take it above max.
+         */
+        private int add(int delta) {
+            int current;
+            int updated;
+            do {
+                current = quantity.get();
+                updated = current + delta;
+                if (delta > 0 && updated > beer.getMax()) {
+                    return -1;
+                }
+            } while (!quantity.compareAndSet(current, updated));
+            pending.addAndGet(delta);
+            return updated;
+        }
+
+        private BeerDTO snapshot(int currentQuantity) {
+            return new BeerDTO(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), currentQuantity, beer.getType());
+        }
+    }
+}
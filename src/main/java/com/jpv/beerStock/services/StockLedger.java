@@ -0,0 +1,304 @@
+package com.jpv.beerStock.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.StockHistoryPointDTO;
+import com.jpv.beerStock.entity.StockLedgerEntry;
+import com.jpv.beerStock.entity.StockLedgerRollup;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.StockHistoryGranularity;
+import com.jpv.beerStock.repositories.StockLedgerEntryRepository;
+import com.jpv.beerStock.repositories.StockLedgerRollupRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Value;
+
+/**
+ * Append-only ledger of stock movements. {@link BeerEventBus} hands it each
+ * committed stock change, which is only queued there; the flush writes the
+ * queue in batched inserts, so no write waits for the ledger. A movement still
+ * queued is lost if the instance dies, and one arriving with the queue full is
+ * dropped and counted: the ledger is a history, not the stock itself.
+ *
+ * <p>The compaction keeps the table bounded: movements older than
+ * {@code rawRetention} are summed up into one row per beer and hour, and
+ * hourly rows older than {@code hourlyRetention} into one per beer and day.
+ * Each batch is folded and deleted in one transaction, so a movement is
+ * always counted exactly once.
+ */
+public class StockLedger {
+
+    public static final int DEFAULT_HISTORY_POINTS = 1000;
+    public static final int MAX_HISTORY_POINTS = 10_000;
+
+    private static final Comparator<StockHistoryPointDTO> BY_TIME = Comparator
+            .comparing(StockHistoryPointDTO::getAt)
+            .thenComparing(point -> point.getGranularity().ordinal(), Comparator.reverseOrder());
+
+    private final StockLedgerEntryRepository entryRepository;
+    private final StockLedgerRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration rawRetention;
+    private final Duration hourlyRetention;
+    private final BlockingQueue<StockLedgerEntry> pending;
+    // only touched by flush, which is synchronized
+    private final List<StockLedgerEntry> unsaved = new ArrayList<>();
+    private final Counter dropped;
+    private final Counter failures;
+    private final Counter compacted;
+    private final Timer flushTimer;
+    private final Timer compactionTimer;
+    private final Clock clock;
+
+    public StockLedger(StockLedgerEntryRepository entryRepository, StockLedgerRollupRepository rollupRepository,
+            TransactionTemplate transactionTemplate, int capacity, int batchSize, Duration rawRetention,
+            Duration hourlyRetention, Clock clock, MeterRegistry meterRegistry) {
+        this.entryRepository = entryRepository;
+        this.clock = clock;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.rawRetention = rawRetention;
+        this.hourlyRetention = hourlyRetention;
+        this.pending = new ArrayBlockingQueue<>(capacity);
+        this.dropped = Counter.builder("beerstock.ledger.dropped")
+                .description("Movements not recorded because the ledger queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("beerstock.ledger.failures")
+                .description("Ledger batches that failed to be written, to be written again")
+                .register(meterRegistry);
+        this.compacted = Counter.builder("beerstock.ledger.compacted")
+                .description("Ledger rows folded into hourly or daily rollups and deleted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("beerstock.ledger.flush")
+                .description("Time to insert one batch of movements")
+                .register(meterRegistry);
+        this.compactionTimer = Timer.builder("beerstock.ledger.compaction")
+                .description("Time to compact the ledger")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.ledger.pending", pending, BlockingQueue::size)
+                .description("Movements waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public static StockLedger disabled() {
+        return new StockLedger(null, null, null, 1, 1, Duration.ZERO, Duration.ZERO, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return entryRepository != null;
+    }
+
+    public void onEvents(List<BeerEventDTO> events) {
+        if (!isEnabled()) {
+            return;
+        }
+        Instant now = clock.instant();
+        for (BeerEventDTO event : events) {
+            if (event.getType() == BeerEventType.STOCK_CHANGED && event.getDelta() != null) {
+                if (!pending.offer(new StockLedgerEntry(null, event.getBeerId(), event.getDelta(), event.getQuantity(), now))) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the queued movements, a batch per transaction, until the queue is
+     * empty or a batch fails; a failed batch is written first on the next run.
+     * Returns the number of movements written.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.ledger.flush-interval-ms:200}")
+    public synchronized int flush() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int written = 0;
+        while (true) {
+            if (unsaved.isEmpty()) {
+                pending.drainTo(unsaved, batchSize);
+            }
+            if (unsaved.isEmpty()) {
+                return written;
+            }
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> entryRepository.saveAll(unsaved));
+            } catch (DataAccessException | TransactionException e) {
+                failures.increment();
+                // saveAll handed out ids that were rolled back with the batch
+                unsaved.forEach(entry -> entry.setId(null));
+                return written;
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            written += unsaved.size();
+            unsaved.clear();
+        }
+    }
+
+    public void close() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.ledger.compaction-interval-ms:3600000}")
+    public void compact() {
+        compact(clock.instant());
+    }
+
+    /**
+     * Folds the movements and hourly rollups past their retention at
+     * {@code now}. Returns the number of rows folded.
+     */
+    public synchronized int compact(Instant now) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Instant hourCutoff = now.minus(rawRetention).truncatedTo(ChronoUnit.HOURS);
+        Instant dayCutoff = now.minus(hourlyRetention).truncatedTo(ChronoUnit.DAYS);
+        Pageable batch = PageRequest.of(0, batchSize);
+        int folded = 0;
+        int foldedInBatch;
+        do {
+            foldedInBatch = transactionTemplate.execute(status -> {
+                List<StockLedgerEntry> entries = entryRepository.findAllByMovedAtBeforeOrderByIdAsc(hourCutoff, batch);
+                fold(StockHistoryGranularity.HOUR, entries.stream().map(StockLedger::toRollup));
+                entryRepository.deleteAllByIdInBatch(entries.stream().map(StockLedgerEntry::getId).collect(Collectors.toList()));
+                return entries.size();
+            });
+            folded += foldedInBatch;
+        } while (foldedInBatch == batchSize);
+        do {
+            foldedInBatch = transactionTemplate.execute(status -> {
+                List<StockLedgerRollup> hours = rollupRepository.findAllByGranularityAndBucketStartBeforeOrderByIdAsc(
+                        StockHistoryGranularity.HOUR, dayCutoff, batch);
+                List<Long> ids = hours.stream().map(StockLedgerRollup::getId).collect(Collectors.toList());
+                fold(StockHistoryGranularity.DAY, hours.stream());
+                rollupRepository.deleteAllByIdInBatch(ids);
+                return hours.size();
+            });
+            folded += foldedInBatch;
+        } while (foldedInBatch == batchSize);
+        compacted.increment(folded);
+        compactionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return folded;
+    }
+
+    /**
+     * The beer's movements and rollups from {@code from}, inclusive, to
+     * {@code to}, exclusive, oldest first and at most {@code limit} of them.
+     * A rollup is in the range when its hour or day starts in it. Movements
+     * still queued for the flush are not there yet.
+     */
+    public List<StockHistoryPointDTO> history(Long beerId, Instant from, Instant to, int limit) {
+        if (!isEnabled() || !from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        Pageable page = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_HISTORY_POINTS));
+        return Stream.concat(
+                        rollupRepository.findHistory(beerId, from, to, page).stream().map(StockLedger::toPoint),
+                        entryRepository.findHistory(beerId, from, to, page).stream().map(StockLedger::toPoint))
+                .sorted(BY_TIME)
+                .limit(page.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the rows, each already shaped as a rollup of the finer granularity,
+     * into the rollups of {@code granularity} they fall in, creating the ones
+     * that do not exist yet.
+     */
+    private void fold(StockHistoryGranularity granularity, Stream<StockLedgerRollup> rows) {
+        ChronoUnit unit = granularity == StockHistoryGranularity.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        Map<Bucket, StockLedgerRollup> sums = new HashMap<>();
+        rows.forEach(row -> {
+            Bucket bucket = new Bucket(row.getBeerId(), row.getBucketStart().truncatedTo(unit));
+            StockLedgerRollup sum = sums.computeIfAbsent(bucket,
+                    key -> new StockLedgerRollup(null, key.getBeerId(), granularity, key.getStart(), 0, 0, 0));
+            add(sum, row);
+        });
+        if (sums.isEmpty()) {
+            return;
+        }
+        Set<Long> beerIds = new HashSet<>();
+        Set<Instant> starts = new HashSet<>();
+        sums.keySet().forEach(bucket -> {
+            beerIds.add(bucket.getBeerId());
+            starts.add(bucket.getStart());
+        });
+        Map<Bucket, StockLedgerRollup> existing = rollupRepository
+                .findAllByGranularityAndBeerIdInAndBucketStartIn(granularity, beerIds, starts).stream()
+                .collect(Collectors.toMap(rollup -> new Bucket(rollup.getBeerId(), rollup.getBucketStart()), Function.identity()));
+        List<StockLedgerRollup> merged = new ArrayList<>(sums.size());
+        sums.forEach((bucket, sum) -> {
+            StockLedgerRollup rollup = existing.get(bucket);
+            if (rollup == null) {
+                merged.add(sum);
+            } else {
+                add(rollup, sum);
+                merged.add(rollup);
+            }
+        });
+        rollupRepository.saveAll(merged);
+    }
+
+    private static void add(StockLedgerRollup sum, StockLedgerRollup row) {
+        sum.setMovements(sum.getMovements() + row.getMovements());
+        sum.setUnitsIn(sum.getUnitsIn() + row.getUnitsIn());
+        sum.setUnitsOut(sum.getUnitsOut() + row.getUnitsOut());
+    }
+
+    private static StockLedgerRollup toRollup(StockLedgerEntry entry) {
+        int delta = entry.getDelta();
+        return new StockLedgerRollup(null, entry.getBeerId(), StockHistoryGranularity.MOVEMENT, entry.getMovedAt(),
+                1, Math.max(delta, 0), Math.max(-delta, 0));
+    }
+
+    private static StockHistoryPointDTO toPoint(StockLedgerEntry entry) {
+        int delta = entry.getDelta();
+        return new StockHistoryPointDTO(StockHistoryGranularity.MOVEMENT, entry.getMovedAt(), delta, 1,
+                Math.max(delta, 0), Math.max(-delta, 0), entry.getQuantity());
+    }
+
+    private static StockHistoryPointDTO toPoint(StockLedgerRollup rollup) {
+        return new StockHistoryPointDTO(rollup.getGranularity(), rollup.getBucketStart(),
+                rollup.getUnitsIn() - rollup.getUnitsOut(), rollup.getMovements(), rollup.getUnitsIn(),
+                rollup.getUnitsOut(), null);
+    }
+
+    @Value
+    private static class Bucket {
+        Long beerId;
+        Instant start;
+    }
+}
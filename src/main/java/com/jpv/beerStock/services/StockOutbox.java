@@ -0,0 +1,177 @@
+package com.jpv.beerStock.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.entity.OutboxEvent;
+import com.jpv.beerStock.repositories.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Transactional outbox for catalogue events. Writers append an event in the
+ * transaction of the change it describes, so either both commit or neither
+ * does; the relay then sends the events to the {@link OutboxSink} in id
+ * batches and deletes them only once the sink accepted the batch. Delivery is
+ * at least once: a crash between the two resends the batch.
+ * <p>
+ * Ids come from a pooled sequence when the event is written, not when its
+ * transaction commits, so a lower id can commit after a higher one. The relay
+ * therefore stops below the lowest id this instance is still writing, and the
+ * events one instance writes reach the sink in id order. Events written by
+ * different instances have no such guarantee.
+ */
+public class StockOutbox {
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxSink sink;
+    private final ObjectMapper objectMapper;
+    private final Pageable batch;
+    private final AtomicLong lagMillis = new AtomicLong();
+    // ids saved by transactions that have not completed yet; also the lock that orders them with the relay reads
+    private final NavigableSet<Long> writingIds = new TreeSet<>();
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer relayTimer;
+
+    public StockOutbox(OutboxEventRepository outboxRepository, OutboxSink sink, ObjectMapper objectMapper,
+            int batchSize, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.objectMapper = objectMapper;
+        this.batch = PageRequest.of(0, batchSize);
+        this.relayed = Counter.builder("beerstock.outbox.relayed")
+                .description("Outbox events accepted by the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("beerstock.outbox.failures")
+                .description("Outbox batches the sink rejected, to be sent again")
+                .register(meterRegistry);
+        this.relayTimer = Timer.builder("beerstock.outbox.relay")
+                .description("Time to send one outbox batch and delete it")
+                .register(meterRegistry);
+        TimeGauge.builder("beerstock.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest event still in the outbox after the last relay")
+                .register(meterRegistry);
+    }
+
+    public static StockOutbox disabled() {
+        return new StockOutbox(null, null, null, 1, new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return outboxRepository != null;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BeerEventDTO event) {
+        appendAll(Collections.singletonList(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<BeerEventDTO> events) {
+        if (!isEnabled() || events.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<OutboxEvent> outboxEvents = events.stream()
+                .map(event -> new OutboxEvent(null, event.getType(), event.getBeerId(), toJson(event), now))
+                .collect(Collectors.toList());
+        List<Long> ids;
+        // the ids are assigned on save, so no relay read can fall between assigning and tracking them
+        synchronized (writingIds) {
+            ids = outboxRepository.saveAll(outboxEvents).stream().map(OutboxEvent::getId).collect(Collectors.toList());
+            writingIds.addAll(ids);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (writingIds) {
+                    writingIds.removeAll(ids);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the pending events until the outbox is empty or the sink fails.
+     * Returns the number of events delivered.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.outbox.relay-interval-ms:500}")
+    public synchronized int relay() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int delivered = 0;
+        try {
+            List<OutboxEvent> events = nextBatch();
+            while (!events.isEmpty()) {
+                sendAndDelete(events);
+                delivered += events.size();
+                if (events.size() < batch.getPageSize()) {
+                    break;
+                }
+                events = nextBatch();
+            }
+        } catch (IOException e) {
+            // the batch stays in the outbox and is sent again on the next run
+            failures.increment();
+        } finally {
+            lagMillis.set(outboxRepository.findFirstByOrderByIdAsc()
+                    .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                    .orElse(0L));
+        }
+        return delivered;
+    }
+
+    /**
+     * The oldest committed events below the lowest id still being written. Holds
+     * the lock while reading, so an id assigned afterwards is above every event
+     * the read can see.
+     */
+    private List<OutboxEvent> nextBatch() {
+        synchronized (writingIds) {
+            Long horizon = writingIds.isEmpty() ? Long.MAX_VALUE : writingIds.first();
+            return outboxRepository.findByIdLessThanOrderByIdAsc(horizon, batch);
+        }
+    }
+
+    private void sendAndDelete(List<OutboxEvent> events) throws IOException {
+        long start = System.nanoTime();
+        sink.send(events);
+        outboxRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        relayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        relayed.increment(events.size());
+    }
+
+    private String toJson(BeerEventDTO event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
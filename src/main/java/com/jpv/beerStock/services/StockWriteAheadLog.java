@@ -0,0 +1,193 @@
+package com.jpv.beerStock.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of acknowledged stock increments, in fixed-size records of
+ * sequence, beer id, delta and CRC. Writes go to the current segment; a flush
+ * seals it so the segment can be deleted once its increments are in the
+ * database. Concurrent {@link #sync(long)} calls share one fsync.
+ */
+public class StockWriteAheadLog implements Closeable {
+
+    /** Receives the records of a log replayed on startup. */
+    public interface RecordConsumer {
+        void accept(long beerId, int delta);
+    }
+
+    private static final int RECORD_SIZE = 24;
+    private static final int CHECKSUMMED_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_GLOB = "stock-*.wal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Object syncMonitor = new Object();
+
+    private Path segment;
+    private FileChannel channel;
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    public StockWriteAheadLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replays the records of existing segments written after
+     * {@code afterSequence}, then starts a new segment. The replayed segments
+     * stay on disk, sealed, until {@link #deleteSealed()}. Returns the last
+     * sequence found, which is where new records continue from.
+     */
+    public synchronized long open(long afterSequence, RecordConsumer consumer) throws IOException {
+        Files.createDirectories(directory);
+        lastSequence = afterSequence;
+        for (Path existing : existingSegments()) {
+            lastSequence = Math.max(lastSequence, replay(existing, afterSequence, consumer));
+            sealedSegments.add(existing);
+        }
+        durableSequence = lastSequence;
+        startSegment();
+        return lastSequence;
+    }
+
+    public synchronized long append(long beerId, int delta) throws IOException {
+        long sequence = lastSequence + 1;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(sequence).putLong(beerId).putInt(delta);
+        record.putInt(checksum(record.array()));
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Returns once the record with the given sequence is on disk. Callers that
+     * arrive while an fsync is running wait for it and are usually covered by
+     * the next one, so fsyncs are shared between threads.
+     */
+    public void sync(long sequence) throws IOException {
+        if (!fsync || durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = lastSequence;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // sealed meanwhile, and sealing forces the segment
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                throw e;
+            }
+            durableSequence = Math.max(durableSequence, target);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Returns the last
+     * sequence written to the sealed segments.
+     */
+    public synchronized long seal() throws IOException {
+        channel.force(false);
+        channel.close();
+        sealedSegments.add(segment);
+        durableSequence = lastSequence;
+        startSegment();
+        return lastSequence;
+    }
+
+    /**
+     * Deletes the sealed segments, once the database holds their increments.
+     */
+    public synchronized void deleteSealed() throws IOException {
+        for (Path sealed : sealedSegments) {
+            Files.deleteIfExists(sealed);
+        }
+        sealedSegments.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            if (Files.size(segment) == 0) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    private void startSegment() throws IOException {
+        segment = directory.resolve(String.format("stock-%020d.wal", lastSequence + 1));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+            stream.forEach(segments::add);
+        }
+        // names carry the zero-padded first sequence, so name order is log order
+        segments.sort(null);
+        return segments;
+    }
+
+    private static long replay(Path segment, long afterSequence, RecordConsumer consumer) throws IOException {
+        long last = 0;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            while (true) {
+                record.clear();
+                // a short or corrupt record is the tail of a write that was never acknowledged
+                if (!readFully(in, record) || record.getInt(CHECKSUMMED_SIZE) != checksum(record.array())) {
+                    return last;
+                }
+                long sequence = record.getLong(0);
+                if (sequence > afterSequence) {
+                    consumer.accept(record.getLong(Long.BYTES), record.getInt(2 * Long.BYTES));
+                }
+                last = sequence;
+            }
+        }
+    }
+
+    private static boolean readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, CHECKSUMMED_SIZE);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.jpv.beerStock.services;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.StockAlertDTO;
+
+/**
+ * Stands in for a webhook: keeps the JSON body each alert would be POSTed
+ * with, in a bounded queue for local runs and tests. When the queue is full
+ * the oldest body is dropped, as a webhook that is down would lose it.
+ */
+public class WebhookAlertSink implements StockAlertSink {
+
+    private final BlockingQueue<String> bodies;
+    private final ObjectMapper objectMapper;
+
+    public WebhookAlertSink(int capacity, ObjectMapper objectMapper) {
+        this.bodies = new ArrayBlockingQueue<>(capacity);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(StockAlertDTO alert) {
+        String body = toJson(alert);
+        while (!bodies.offer(body)) {
+            bodies.poll();
+        }
+    }
+
+    public List<String> poll(int maxBodies) {
+        List<String> polled = new ArrayList<>();
+        bodies.drainTo(polled, maxBodies);
+        return polled;
+    }
+
+    private String toJson(StockAlertDTO alert) {
+        try {
+            return objectMapper.writeValueAsString(alert);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
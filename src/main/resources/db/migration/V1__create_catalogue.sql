@@ -0,0 +1,43 @@
+-- allocation size 50 on the entities: Hibernate hands out 50 ids per sequence call
+create sequence beer_seq start with 1 increment by 50;
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table beer (
+    id bigint not null,
+    name varchar(255) not null,
+    brand varchar(255) not null,
+    max integer not null,
+    quantity integer not null,
+    reserved integer not null,
+    type varchar(255) not null,
+    version bigint not null,
+    primary key (id),
+    constraint uk_beer_name unique (name)
+);
+create index idx_beer_brand on beer (brand);
+create index idx_beer_type on beer (type);
+create index idx_beer_stock on beer (quantity, max);
+
+create table stock_reservation (
+    id varchar(255) not null,
+    beer_id bigint not null,
+    quantity integer not null,
+    expires_at timestamp not null,
+    primary key (id)
+);
+create index idx_stock_reservation_expires_at on stock_reservation (expires_at);
+
+create table stock_engine_checkpoint (
+    id integer not null,
+    sequence bigint not null,
+    primary key (id)
+);
+
+create table outbox_event (
+    id bigint not null,
+    type varchar(255) not null,
+    beer_id bigint not null,
+    payload varchar(1024) not null,
+    created_at timestamp not null,
+    primary key (id)
+);
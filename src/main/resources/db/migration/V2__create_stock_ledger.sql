@@ -0,0 +1,24 @@
+create sequence stock_ledger_entry_seq start with 1 increment by 50;
+create sequence stock_ledger_rollup_seq start with 1 increment by 50;
+
+create table stock_ledger_entry (
+    id bigint not null,
+    beer_id bigint not null,
+    delta integer not null,
+    quantity integer,
+    moved_at timestamp not null,
+    primary key (id)
+);
+create index idx_stock_ledger_entry_beer_moved_at on stock_ledger_entry (beer_id, moved_at);
+
+create table stock_ledger_rollup (
+    id bigint not null,
+    beer_id bigint not null,
+    granularity varchar(255) not null,
+    bucket_start timestamp not null,
+    movements bigint not null,
+    units_in bigint not null,
+    units_out bigint not null,
+    primary key (id),
+    constraint uk_stock_ledger_rollup_bucket unique (beer_id, bucket_start, granularity)
+);
@@ -0,0 +1,173 @@
+package com.jpv.beerStock.reactive.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.QuantityDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.reactive.ReactiveBeerStockApplication;
+import com.jpv.beerStock.reactive.entity.ReactiveBeer;
+import com.jpv.beerStock.reactive.repositories.ReactiveBeerRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+//Teste de integração da API reativa contra o H2 via R2DBC
+@SpringBootTest(classes = ReactiveBeerStockApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles(ReactiveBeerStockApplication.PROFILE)
+public class ReactiveBeerControllerTest {
+
+	private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ReactiveBeerRepository beerRepository;
+
+	private ReactiveBeer beer;
+
+	@BeforeEach
+	void setUp() {
+		beer = beerRepository.save(new ReactiveBeer(null, "Reactive Ale", "Ambev", 100, 50, BeerType.ALE, 0, null)).block();
+	}
+
+	@AfterEach
+	void tearDown() {
+		beerRepository.deleteAll().block();
+	}
+
+	@Test
+	void whenPOSTIsCalledThenABeerIsCreated() {
+		BeerDTO beerDTO = new BeerDTO(null, "Reactive Lager", "Heineken", 50, 10, BeerType.LAGER);
+
+		webTestClient.post().uri(BEER_API_URL_PATH).bodyValue(beerDTO)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody()
+				.jsonPath("$.id").isNotEmpty()
+				.jsonPath("$.name").isEqualTo("Reactive Lager");
+	}
+
+	@Test
+	void whenPOSTIsCalledWithARegisteredNameThenBadRequestIsReturned() {
+		BeerDTO beerDTO = new BeerDTO(null, beer.getName(), "Ambev", 100, 10, BeerType.ALE);
+
+		webTestClient.post().uri(BEER_API_URL_PATH).bodyValue(beerDTO)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenPOSTIsCalledWithoutRequiredFieldThenBadRequestIsReturned() {
+		BeerDTO beerDTO = new BeerDTO(null, null, "Ambev", 100, 10, BeerType.ALE);
+
+		webTestClient.post().uri(BEER_API_URL_PATH).bodyValue(beerDTO)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenGETIsCalledWithValidNameThenOkStatusIsReturned() {
+		webTestClient.get().uri(BEER_API_URL_PATH + "/" + beer.getName())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.quantity").isEqualTo(50);
+	}
+
+	@Test
+	void whenGETIsCalledWithUnknownNameThenNotFoundStatusIsReturned() {
+		webTestClient.get().uri(BEER_API_URL_PATH + "/Unknown")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void whenGETListIsCalledThenAJsonArrayIsReturned() {
+		List<BeerDTO> beers = webTestClient.get().uri(BEER_API_URL_PATH)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(BeerDTO.class)
+				.returnResult().getResponseBody();
+
+		assertThat(beers.size(), is(equalTo(1)));
+		assertThat(beers.get(0).getName(), is(equalTo(beer.getName())));
+	}
+
+	@Test
+	void whenGETListIsCalledWithNdjsonThenBeersAreStreamedOnePerLine() {
+		beerRepository.save(new ReactiveBeer(null, "Reactive Stout", "Guinness", 100, 5, BeerType.STOUT, 0, null)).block();
+
+		Flux<BeerDTO> beers = webTestClient.get().uri(BEER_API_URL_PATH)
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(BeerDTO.class).getResponseBody();
+
+		StepVerifier.create(beers.map(BeerDTO::getName))
+				.expectNext("Reactive Ale", "Reactive Stout")
+				.verifyComplete();
+	}
+
+	@Test
+	void whenPATCHIncrementIsCalledThenQuantityIsIncremented() {
+		webTestClient.patch().uri(BEER_API_URL_PATH + "/" + beer.getId() + "/increment")
+				.bodyValue(new QuantityDTO(10))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.quantity").isEqualTo(60);
+	}
+
+	@Test
+	void whenPATCHIncrementExceedsMaxThenBadRequestIsReturned() {
+		webTestClient.patch().uri(BEER_API_URL_PATH + "/" + beer.getId() + "/increment")
+				.bodyValue(new QuantityDTO(51))
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenPATCHDecrementIsCalledWithUnknownIdThenNotFoundStatusIsReturned() {
+		webTestClient.patch().uri(BEER_API_URL_PATH + "/999999/decrement")
+				.bodyValue(new QuantityDTO(1))
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void whenPATCHDecrementIsBelowZeroThenBadRequestIsReturned() {
+		webTestClient.patch().uri(BEER_API_URL_PATH + "/" + beer.getId() + "/decrement")
+				.bodyValue(new QuantityDTO(51))
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenDELETEIsCalledThenNoContentIsReturned() {
+		webTestClient.delete().uri(BEER_API_URL_PATH + "/" + beer.getId())
+				.exchange()
+				.expectStatus().isNoContent();
+
+		StepVerifier.create(beerRepository.existsById(beer.getId()))
+				.expectNext(false)
+				.verifyComplete();
+	}
+}
@@ -0,0 +1,41 @@
+package com.jpv.beerStock.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Non-blocking variant of the beer API: WebFlux on Netty over R2DBC. Only built
+ * with the {@code reactive} Maven profile and only scans this package, so none
+ * of the servlet/JPA beans are created.
+ */
+@Profile(ReactiveBeerStockApplication.PROFILE)
+@SpringBootApplication(exclude = {
+		DataSourceAutoConfiguration.class,
+		DataSourceTransactionManagerAutoConfiguration.class,
+		HibernateJpaAutoConfiguration.class
+})
+public class ReactiveBeerStockApplication {
+
+	public static final String PROFILE = "reactive";
+
+	public static void main(String[] args) {
+		SpringApplication application = new SpringApplication(ReactiveBeerStockApplication.class);
+		application.setWebApplicationType(WebApplicationType.REACTIVE);
+		application.setAdditionalProfiles(PROFILE);
+		application.run(args);
+	}
+
+	// Tomcat is still on the classpath for the servlet stack and would otherwise be preferred
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.jpv.beerStock.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.jpv.beerStock.enums.BeerType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Table("beer")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactiveBeer {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private int max;
+
+    private int quantity;
+
+    private BeerType type;
+
+    private int reserved;
+
+    @Version
+    private Long version;
+}
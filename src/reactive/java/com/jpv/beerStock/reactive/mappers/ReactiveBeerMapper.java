@@ -0,0 +1,20 @@
+package com.jpv.beerStock.reactive.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.reactive.entity.ReactiveBeer;
+
+@Mapper
+public interface ReactiveBeerMapper {
+
+    ReactiveBeerMapper INSTANCE = Mappers.getMapper(ReactiveBeerMapper.class);
+
+    @Mapping(target = "reserved", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    ReactiveBeer toModel(BeerDTO beerDTO);
+
+    BeerDTO toDTO(ReactiveBeer beer);
+}
@@ -0,0 +1,28 @@
+package com.jpv.beerStock.reactive.repositories;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.jpv.beerStock.reactive.entity.ReactiveBeer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBeerRepository extends ReactiveCrudRepository<ReactiveBeer, Long> {
+
+    Mono<ReactiveBeer> findByName(String name);
+
+    Flux<ReactiveBeer> findAllByOrderById();
+
+    @Modifying
+    @Query("update beer set quantity = quantity + :quantity, version = version + 1 "
+            + "where id = :id and quantity + :quantity <= max")
+    Mono<Integer> incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update beer set quantity = quantity - :quantity, version = version + 1 "
+            + "where id = :id and quantity - :quantity >= reserved")
+    Mono<Integer> decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+}
@@ -0,0 +1,81 @@
+package com.jpv.beerStock.reactive.services;
+
+import lombok.AllArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.exceptions.BeerAlreadyRegisteredException;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.reactive.ReactiveBeerStockApplication;
+import com.jpv.beerStock.reactive.entity.ReactiveBeer;
+import com.jpv.beerStock.reactive.mappers.ReactiveBeerMapper;
+import com.jpv.beerStock.reactive.repositories.ReactiveBeerRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same rules as {@link com.jpv.beerStock.services.BeerService}, without blocking:
+ * stock changes are single conditional updates, so no retry loop is needed.
+ */
+@Service
+@Profile(ReactiveBeerStockApplication.PROFILE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveBeerService {
+
+    private final ReactiveBeerRepository beerRepository;
+    private final ReactiveBeerMapper beerMapper = ReactiveBeerMapper.INSTANCE;
+
+    public Mono<BeerDTO> createBeer(BeerDTO beerDTO) {
+        ReactiveBeer beer = beerMapper.toModel(beerDTO);
+        beer.setId(null);
+        return beerRepository.findByName(beerDTO.getName())
+                .flatMap(savedBeer -> Mono.<ReactiveBeer>error(new BeerAlreadyRegisteredException(savedBeer.getName())))
+                .switchIfEmpty(Mono.defer(() -> beerRepository.save(beer)))
+                .map(beerMapper::toDTO);
+    }
+
+    public Mono<BeerDTO> findByName(String name) {
+        return beerRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> new BeerNotFoundException(name)))
+                .map(beerMapper::toDTO);
+    }
+
+    /**
+     * Rows are pulled from the database as the subscriber requests them, so a
+     * slow client throttles the query instead of buffering the whole table.
+     */
+    public Flux<BeerDTO> listAll() {
+        return beerRepository.findAllByOrderById().map(beerMapper::toDTO);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return verifyIfExists(id).flatMap(beer -> beerRepository.deleteById(beer.getId()));
+    }
+
+    public Mono<BeerDTO> increment(Long id, int quantityToIncrement) {
+        return beerRepository.incrementQuantity(id, quantityToIncrement)
+                .flatMap(updated -> updated == 0
+                        ? verifyIfExists(id).then(Mono.<ReactiveBeer>error(new BeerStockExceededException(id, quantityToIncrement)))
+                        : verifyIfExists(id))
+                .map(beerMapper::toDTO);
+    }
+
+    public Mono<BeerDTO> decrement(Long id, int quantityToDecrement) {
+        return beerRepository.decrementQuantity(id, quantityToDecrement)
+                .flatMap(updated -> updated == 0
+                        ? verifyIfExists(id).then(Mono.<ReactiveBeer>error(new BeerStockInsufficientException(id, quantityToDecrement)))
+                        : verifyIfExists(id))
+                .map(beerMapper::toDTO);
+    }
+
+    private Mono<ReactiveBeer> verifyIfExists(Long id) {
+        return beerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new BeerNotFoundException(id)));
+    }
+}
@@ -0,0 +1,10 @@
+create table if not exists beer (
+    id bigint auto_increment primary key,
+    name varchar(255) not null unique,
+    brand varchar(255) not null,
+    max int not null,
+    quantity int not null,
+    type varchar(255) not null,
+    reserved int not null default 0,
+    version bigint not null default 0
+);
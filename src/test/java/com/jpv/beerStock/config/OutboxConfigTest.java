@@ -0,0 +1,38 @@
+package com.jpv.beerStock.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jpv.beerStock.enums.OutboxSinkType;
+import com.jpv.beerStock.services.FileOutboxSink;
+import com.jpv.beerStock.services.OutboxSink;
+
+//Teste da configuração do outbox desligado: nenhum destino é preparado
+public class OutboxConfigTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void whenOutboxIsDisabledThenTheFileSinkIsNotOpened() throws Exception {
+		//given
+		OutboxProperties properties = new OutboxProperties();
+		properties.setSink(OutboxSinkType.FILE);
+		properties.setFile(directory.resolve("outbox").resolve("events.ndjson"));
+
+		//when
+		OutboxSink sink = new OutboxConfig().outboxSink(properties);
+
+		//then
+		assertThat(sink, is(not(instanceOf(FileOutboxSink.class))));
+		assertThat(Files.exists(properties.getFile().getParent()), is(false));
+	}
+}
@@ -0,0 +1,55 @@
+package com.jpv.beerStock.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Path;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jpv.beerStock.BeerStockApplication;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.services.BeerService;
+
+//Teste do profile persistent: o schema vem das migrations e o estoque sobrevive a um restart
+public class PersistentProfileTest {
+
+	@TempDir
+	Path datastoreDirectory;
+
+	@Test
+	void whenApplicationRestartsThenStockWrittenBeforeIsStillThere() throws Exception {
+		//given
+		Long beerId;
+		try (ConfigurableApplicationContext context = start()) {
+			BeerService beerService = context.getBean(BeerService.class);
+			beerId = beerService.createBeer(new BeerDTO(null, "Persistent Stout", "Ambev", 100, 10, BeerType.STOUT)).getId();
+			beerService.increment(beerId, 5);
+		}
+
+		//when
+		try (ConfigurableApplicationContext context = start()) {
+			BeerDTO beer = context.getBean(BeerService.class).findByName("Persistent Stout");
+
+			//then
+			assertThat(beer.getId(), is(equalTo(beerId)));
+			assertThat(beer.getQuantity(), is(equalTo(15)));
+			assertThat(context.getBean(Flyway.class).info().current().getVersion().getVersion(), is(equalTo("2")));
+		}
+	}
+
+	private ConfigurableApplicationContext start() {
+		return new SpringApplicationBuilder(BeerStockApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.profiles.active=persistent",
+						"--beerstock.datastore.directory=" + datastoreDirectory,
+						"--spring.main.banner-mode=off");
+	}
+}
@@ -0,0 +1,40 @@
+package com.jpv.beerStock.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+
+	private static final int VIRTUAL_THREADS_RELEASE = 21;
+
+	@Test
+	void whenRuntimeSupportsVirtualThreadsThenTasksRunOnNamedVirtualThreads() throws Exception {
+		assumeTrue(Runtime.version().feature() >= VIRTUAL_THREADS_RELEASE);
+		ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("virtual-");
+		try {
+			//when
+			Thread thread = executor.submit(Thread::currentThread).get();
+
+			//then
+			assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(equalTo(true)));
+			assertThat(thread.getName(), startsWith("virtual-"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void whenRuntimeLacksVirtualThreadsThenAnExceptionIsThrown() {
+		assumeTrue(Runtime.version().feature() < VIRTUAL_THREADS_RELEASE);
+
+		assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("virtual-"));
+	}
+}
@@ -2,15 +2,31 @@ package com.jpv.beerStock.controller;
 
 import static com.jpv.beerStock.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import javax.net.ssl.SSLEngineResult.Status;
 
@@ -20,21 +36,48 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jpv.beerStock.builder.BeerDTOBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
+import com.jpv.beerStock.dto.QuantityDTO;
+import com.jpv.beerStock.dto.ReservationDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.dto.StockMovementsDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockMovementStatus;
 import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
+import com.jpv.beerStock.exceptions.ReservationNotFoundException;
 import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerImportService;
 import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+import com.jpv.beerStock.services.IdempotencyStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 
 
@@ -51,12 +94,25 @@ public class BeerControllerTest {
 	@Mock
 	private BeerService beerService;
 	
+	@Mock
+	private BeerImportService beerImportService;
+	
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+	
+	@Spy
+	private IdempotencyStore idempotencyStore = new IdempotencyStore(Caffeine.newBuilder().build(), Duration.ofSeconds(1), new SimpleMeterRegistry());
+	
+	@Spy
+	private CatalogueSnapshot catalogueSnapshot = CatalogueSnapshot.disabled();
+	
 	@InjectMocks
 	private BeerController beerController;
 	
 	@BeforeEach
 	void setUp() {
 		mockMvc = MockMvcBuilders.standaloneSetup(beerController)
+				.setControllerAdvice(new BeerStockExceptionHandler())
 				.setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
 				.setViewResolvers((s, locale) -> new MappingJackson2JsonView())
 				.build();
@@ -82,6 +138,69 @@ public class BeerControllerTest {
    
 	}
 
+	@Test
+	void whenPOSTIsCalledWithANameReservedByTheRoutesThenBadRequestIsReturned() throws Exception {
+		for (String name : BeerDTO.RESERVED_NAMES) {
+			//given
+			BeerDTO beerDTO = BeerDTOBuilder.builder().name(name).build().toBeerDTO();
+
+			//then
+			mockMvc.perform(post(BEER_API_URL_PATH)
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(asJsonString(beerDTO)))
+					.andExpect(status().isBadRequest());
+		}
+		verify(beerService, never()).createBeer(any());
+	}
+
+	@Test
+	void whenPostIsRetriedWithSameIdempotencyKeyThenFirstBeerIsReturnedAgain() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		when(beerService.createBeer(beerDTO)).thenReturn(beerDTO);
+		
+		//when
+		mockMvc.perform(post(BEER_API_URL_PATH)
+				.header("Idempotency-Key", "create-1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(beerDTO)))
+				.andExpect(status().isCreated())
+				.andExpect(header().doesNotExist("Idempotent-Replayed"));
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH)
+				.header("Idempotency-Key", "create-1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(beerDTO)))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(jsonPath("$.name", is(beerDTO.getName())));
+		verify(beerService, times(1)).createBeer(beerDTO);
+	}
+	
+	@Test
+	void whenIdempotencyKeyIsReusedForAnotherBeerThenUnprocessableEntityIsReturned() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerDTO otherBeerDTO = BeerDTOBuilder.builder().name("Other").build().toBeerDTO();
+		when(beerService.createBeer(beerDTO)).thenReturn(beerDTO);
+		
+		//when
+		mockMvc.perform(post(BEER_API_URL_PATH)
+				.header("Idempotency-Key", "create-2")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(beerDTO)))
+				.andExpect(status().isCreated());
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH)
+				.header("Idempotency-Key", "create-2")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(otherBeerDTO)))
+				.andExpect(status().isUnprocessableEntity());
+		verify(beerService, never()).createBeer(otherBeerDTO);
+	}
+
 	@Test
 	void whenPostCalledWithoutRequiredFielReturnError() throws Exception {
 		//given
@@ -124,6 +243,42 @@ public class BeerControllerTest {
 				
 	}
 	
+	@Test
+	void whenGETCalledInvalidNameReturnProblemResponse() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		
+		//when
+		when(beerService.findByName(beerDTO.getName())).thenThrow(new BeerNotFoundException(beerDTO.getName()));
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+				.andExpect(status().isNotFound())
+				.andExpect(content().contentType(BeerStockExceptionHandler.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.type", is("/problems/beer-not-found")))
+				.andExpect(jsonPath("$.title", is("Not Found")))
+				.andExpect(jsonPath("$.status", is(404)))
+				.andExpect(jsonPath("$.detail", is("Beer with name " + beerDTO.getName() + " not found in the system.")))
+				.andExpect(jsonPath("$.instance", is(BEER_API_URL_PATH + "/" + beerDTO.getName())));
+	}
+	
+	@Test
+	void whenPATCHIsCalledOnContendedBeerThenConflictProblemIsReturned() throws Exception {
+		//given
+		QuantityDTO quantityDTO = QuantityDTO.builder().quantity(1).build();
+		
+		//when
+		when(beerService.decrement(VALID_BEER_ID, 1)).thenThrow(new BeerStockContentionException(VALID_BEER_ID));
+		
+		//then
+		mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO)))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.type", is("/problems/beer-stock-contention")))
+				.andExpect(jsonPath("$.status", is(409)));
+	}
+	
 	@Test
 	void whenGETListCalledReturnOKStatus() throws Exception {
 		//given
@@ -148,6 +303,111 @@ public class BeerControllerTest {
 
 	}
 	
+	@Test
+	void whenGETCalledWithCurrentBeerETagReturnNotModified() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		
+		when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+		
+		//when
+		String eTag = mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		beerDTO.setQuantity(beerDTO.getQuantity() + 1);
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+		beerDTO.setQuantity(beerDTO.getQuantity() - 1);
+		mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+	
+	@Test
+	void whenGETListCalledWithCurrentCatalogueETagReturnNotModifiedWithoutListing() throws Exception {
+		//when
+		when(beerService.catalogueETag()).thenReturn("k2x-7");
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH).header(HttpHeaders.IF_NONE_MATCH, "\"k2x-7\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "W/\"k2x-7\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		verify(beerService, never()).listAll();
+	}
+	
+	@Test
+	void whenGETListCalledInSnapshotModeReturnSnapshotBytesWithStaleness() throws Exception {
+		//given
+		BeerDTO lager = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerDTO stout = new BeerDTO(2L, "Guinness", "Diageo", 50, 10, BeerType.STOUT);
+		when(beerService.catalogueETag()).thenReturn("k2x-7");
+		when(beerService.listAll()).thenReturn(Arrays.asList(lager, stout));
+		CatalogueSnapshot snapshot = new CatalogueSnapshot(beerService::catalogueETag, beerService::listAll, objectMapper,
+				Duration.ofMinutes(1), new SimpleMeterRegistry());
+		snapshot.refresh();
+		MockMvc snapshotMvc = MockMvcBuilders.standaloneSetup(
+				new BeerController(beerService, beerImportService, objectMapper, null, idempotencyStore, snapshot)).build();
+		
+		//when
+		byte[] gzipped = snapshotMvc.perform(get(BEER_API_URL_PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "W/\"k2x-7\""))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string("Snapshot-Staleness-Millis", "0"))
+				.andReturn().getResponse().getContentAsByteArray();
+		
+		//then
+		BeerDTO[] beers = objectMapper.readValue(new GZIPInputStream(new ByteArrayInputStream(gzipped)), BeerDTO[].class);
+		assertThat(beers.length, is(2));
+		snapshotMvc.perform(get(BEER_API_URL_PATH).param("type", "STOUT"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(1)))
+				.andExpect(jsonPath("$[0].name", is(stout.getName())));
+		verify(beerService, times(1)).listAll();
+	}
+	
+	@Test
+	void whenGETListCalledAcceptingCborReturnBeersInCbor() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		
+		//when
+		when(beerService.catalogueETag()).thenReturn("k2x-7");
+		when(beerService.listAll()).thenReturn(Collections.singletonList(beerDTO));
+		
+		//then
+		byte[] body = mockMvc.perform(get(BEER_API_URL_PATH).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andReturn().getResponse().getContentAsByteArray();
+		BeerDTO[] beers = new ObjectMapper(new CBORFactory()).readValue(body, BeerDTO[].class);
+		assertThat(beers.length, is(1));
+		assertThat(beers[0], is(beerDTO));
+	}
+	
+	@Test
+	void whenGETCalledAcceptingSmileReturnBeerInSmile() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+		
+		//when
+		when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+		
+		//then
+		byte[] body = mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()).accept(smile))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(smile))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertThat(new ObjectMapper(new SmileFactory()).readValue(body, BeerDTO.class), is(beerDTO));
+	}
+	
 	@Test
 	void whenDELETECalledValidIDReturnNoContentStatus() throws Exception {
 		//given
@@ -172,6 +432,192 @@ public class BeerControllerTest {
 			
 	}
 	
+	@Test
+	void whenGETPageCalledReturnPageWithNextCursor() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerPageDTO pageDTO = new BeerPageDTO(Collections.singletonList(beerDTO), "next");
+		
+		//when
+		when(beerService.listPage("abc", 10, BeerSort.NAME)).thenReturn(pageDTO);
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH + "/page?after=abc&size=10&sort=NAME").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+				.andExpect(jsonPath("$.nextCursor", is("next")));
+	}
+	
+	@Test
+	void whenGETSearchCalledFiltersAreBoundFromQueryParameters() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		BeerFilterDTO filter = BeerFilterDTO.builder().type(BeerType.LAGER).brand("Amb").minStockPercent(90).build();
+		
+		//when
+		when(beerService.search(filter, null, 20)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), null));
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH + "/search?type=LAGER&brand=Amb&minStockPercent=90&size=20").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())));
+	}
+	
+	@Test
+	void whenGETSearchCalledWithStockPercentOutOfRangeReturnBadRequest() throws Exception {
+		mockMvc.perform(get(BEER_API_URL_PATH + "/search?maxStockPercent=150").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void whenGETTypeStatsCalledReturnTotalsPerType() throws Exception {
+		//when
+		when(beerService.stockStatsByType()).thenReturn(Collections.singletonList(new BeerStockStatsDTO("LAGER", 2, 30, 100)));
+		
+		//then
+		mockMvc.perform(get(BEER_API_URL_PATH + "/stats/types").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].key", is("LAGER")))
+				.andExpect(jsonPath("$[0].quantity", is(30)));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenGETStreamCalledReturnAllBeersAsJsonArray() throws Exception {
+		//given
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		
+		//when
+		doAnswer(invocation -> {
+			((Consumer<BeerDTO>) invocation.getArgument(0)).accept(beerDTO);
+			return null;
+		}).when(beerService).streamAll(any());
+		
+		//then
+		MvcResult mvcResult = mockMvc.perform(get(BEER_API_URL_PATH + "/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+	}
+	
+	@Test
+	void whenPATCHIsCalledToDecrementThenOKStatusIsReturned() throws Exception {
+		//given
+		QuantityDTO quantityDTO = QuantityDTO.builder().quantity(5).build();
+		BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+		beerDTO.setQuantity(beerDTO.getQuantity() - quantityDTO.getQuantity());
+		
+		//when
+		when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+		
+		//then
+		mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+	}
+	
+	@Test
+	void whenPATCHIsCalledToDecrementUnderContentionThenConflictStatusIsReturned() throws Exception {
+		//given
+		QuantityDTO quantityDTO = QuantityDTO.builder().quantity(5).build();
+		
+		//when
+		when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockContentionException.class);
+		
+		//then
+		mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO)))
+				.andExpect(status().isConflict());
+	}
+	
+	@Test
+	void whenPOSTIsCalledToReserveThenCreatedStatusIsReturned() throws Exception {
+		//given
+		ReservationDTO reservationDTO = ReservationDTO.builder().quantity(2).holdSeconds(30).build();
+		StockReservationDTO stockReservationDTO = StockReservationDTO.builder().id("r-1").beerId(VALID_BEER_ID).quantity(2).build();
+		
+		//when
+		when(beerService.reserve(VALID_BEER_ID, 2, 30)).thenReturn(stockReservationDTO);
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(reservationDTO)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id", is("r-1")));
+	}
+	
+	@Test
+	void whenReleaseIsCalledForUnknownReservationThenNotFoundStatusIsReturned() throws Exception {
+		//when
+		doThrow(ReservationNotFoundException.class).when(beerService).releaseReservation("r-1");
+		
+		//then
+		mockMvc.perform(MockMvcRequestBuilders.delete(BEER_API_URL_PATH + "/reservations/r-1"))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	void whenPOSTStockMovementsIsCalledThenResultOfEachMovementIsReturned() throws Exception {
+		//given
+		StockMovementDTO movement = new StockMovementDTO(VALID_BEER_ID, 5);
+		StockMovementsDTO movementsDTO = new StockMovementsDTO(Collections.singletonList(movement));
+		
+		//when
+		when(beerService.applyStockMovements(movementsDTO.getMovements()))
+				.thenReturn(Collections.singletonList(new StockMovementResultDTO(VALID_BEER_ID, 5, StockMovementStatus.APPLIED)));
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(movementsDTO)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status", is(StockMovementStatus.APPLIED.name())));
+	}
+	
+	@Test
+	void whenPOSTStockMovementsIsCalledWithoutDeltaThenBadRequestIsReturned() throws Exception {
+		//given
+		StockMovementsDTO movementsDTO = new StockMovementsDTO(Collections.singletonList(new StockMovementDTO(VALID_BEER_ID, null)));
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(movementsDTO)))
+				.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void whenPOSTStockMovementsIsCalledWithZeroDeltaThenBadRequestIsReturned() throws Exception {
+		//given
+		StockMovementsDTO movementsDTO = new StockMovementsDTO(Collections.singletonList(new StockMovementDTO(VALID_BEER_ID, 0)));
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(movementsDTO)))
+				.andExpect(status().isBadRequest());
+		verify(beerService, never()).applyStockMovements(any());
+	}
+	
+	@Test
+	void whenPOSTBulkIsCalledWithNdjsonThenImportResultIsReturned() throws Exception {
+		//when
+		when(beerImportService.importNdjson(any())).thenReturn(new BulkImportResultDTO(2L, 2L, 0L, Collections.emptyList()));
+		
+		//then
+		mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+				.contentType("application/x-ndjson")
+				.content(asJsonString(BeerDTOBuilder.builder().build().toBeerDTO())))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.created", is(2)));
+	}
+	
 	//Aula 13
 	
 	
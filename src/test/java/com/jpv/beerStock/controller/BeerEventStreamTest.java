@@ -0,0 +1,186 @@
+package com.jpv.beerStock.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+import com.jpv.beerStock.services.IdempotencyStore;
+
+//Teste do stream de eventos com um BeerEventBus real e um único sender thread
+public class BeerEventStreamTest {
+
+	private static final String BEER_EVENTS_URL_PATH = "/api/v1/beers/events";
+
+	private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+	private BeerEventBus beerEventBus;
+
+	private MockMvc mockMvc;
+
+	@AfterEach
+	void tearDown() {
+		beerEventBus.close();
+	}
+
+	@Test
+	void whenSubscribersConnectThenEachOneReceivesTheEventsPublished() throws Exception {
+		//given
+		setUp(16, 16, EventOverflowPolicy.DISCONNECT);
+		MvcResult first = subscribe(null);
+		MvcResult second = subscribe(null);
+
+		//when
+		beerEventBus.publish(stockChanged(1L, 5));
+		String eventId = beerEventBus.lastEventId();
+		awaitSender();
+
+		//then
+		for (MvcResult subscriber : new MvcResult[] { first, second }) {
+			String content = subscriber.getResponse().getContentAsString();
+			assertThat(content, containsString("id:" + eventId));
+			assertThat(content, containsString("event:STOCK_CHANGED"));
+			assertThat(content, containsString("\"beerId\":1"));
+			assertThat(content, containsString("\"delta\":5"));
+		}
+	}
+
+	@Test
+	void whenSubscriberResumesFromLastEventIdThenOnlyMissedEventsAreReplayed() throws Exception {
+		//given
+		setUp(16, 16, EventOverflowPolicy.DISCONNECT);
+		beerEventBus.publish(stockChanged(1L, 1));
+		String seen = beerEventBus.lastEventId();
+		beerEventBus.publish(stockChanged(2L, 2));
+		beerEventBus.publish(stockChanged(3L, 3));
+
+		//when
+		MvcResult resumed = subscribe(seen);
+		awaitSender();
+
+		//then
+		String content = resumed.getResponse().getContentAsString();
+		assertThat(content, not(containsString("\"beerId\":1")));
+		assertThat(content, containsString("\"beerId\":2"));
+		assertThat(content, containsString("\"beerId\":3"));
+	}
+
+	@Test
+	void whenLastEventIdIsNoLongerKeptThenResetIsSent() throws Exception {
+		//given
+		setUp(4, 16, EventOverflowPolicy.DISCONNECT);
+		beerEventBus.publish(stockChanged(1L, 1));
+		String seen = beerEventBus.lastEventId();
+		for (int i = 0; i < 10; i++) {
+			beerEventBus.publish(stockChanged(2L, 1));
+		}
+
+		//when
+		MvcResult stale = subscribe(seen);
+		MvcResult unknown = subscribe("0-1");
+		awaitSender();
+
+		//then
+		for (MvcResult subscriber : new MvcResult[] { stale, unknown }) {
+			String content = subscriber.getResponse().getContentAsString();
+			assertThat(content, containsString("event:reset"));
+			assertThat(content, containsString("id:" + beerEventBus.lastEventId()));
+			assertThat(content, not(containsString("STOCK_CHANGED")));
+		}
+	}
+
+	@Test
+	void whenSubscriberFallsBehindWithDisconnectPolicyThenItsStreamIsClosed() throws Exception {
+		//given
+		setUp(16, 2, EventOverflowPolicy.DISCONNECT);
+		MvcResult slow = subscribe(null);
+		CountDownLatch busy = blockSender();
+
+		//when
+		for (int i = 1; i <= 5; i++) {
+			beerEventBus.publish(stockChanged((long) i, 1));
+		}
+		busy.countDown();
+		awaitSender();
+
+		//then
+		assertThat(beerEventBus.subscriberCount(), equalTo(0));
+		assertThat(slow.getResponse().getContentAsString(), not(containsString("STOCK_CHANGED")));
+	}
+
+	@Test
+	void whenSubscriberFallsBehindWithDropOldestPolicyThenItKeepsTheNewestEvents() throws Exception {
+		//given
+		setUp(16, 2, EventOverflowPolicy.DROP_OLDEST);
+		MvcResult slow = subscribe(null);
+		CountDownLatch busy = blockSender();
+
+		//when
+		for (int i = 1; i <= 5; i++) {
+			beerEventBus.publish(stockChanged((long) i, 1));
+		}
+		busy.countDown();
+		awaitSender();
+
+		//then
+		String content = slow.getResponse().getContentAsString();
+		assertThat(beerEventBus.subscriberCount(), equalTo(1));
+		assertThat(content, not(containsString("\"beerId\":3")));
+		assertThat(content, containsString("\"beerId\":4"));
+		assertThat(content, containsString("\"beerId\":5"));
+	}
+
+	private void setUp(int historySize, int subscriberBuffer, EventOverflowPolicy overflow) {
+		beerEventBus = new BeerEventBus(historySize, subscriberBuffer, overflow, Duration.ofMinutes(1), sender);
+		mockMvc = MockMvcBuilders.standaloneSetup(new BeerController(null, null, new ObjectMapper(), beerEventBus, IdempotencyStore.disabled(), CatalogueSnapshot.disabled())).build();
+	}
+
+	private MvcResult subscribe(String lastEventId) throws Exception {
+		return mockMvc.perform(lastEventId == null
+						? get(BEER_EVENTS_URL_PATH).accept(MediaType.TEXT_EVENT_STREAM)
+						: get(BEER_EVENTS_URL_PATH).accept(MediaType.TEXT_EVENT_STREAM).header("Last-Event-ID", lastEventId))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+
+	// o sender fica ocupado até o latch ser liberado, simulando um cliente lento
+	private CountDownLatch blockSender() {
+		CountDownLatch busy = new CountDownLatch(1);
+		sender.execute(() -> {
+			try {
+				busy.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		return busy;
+	}
+
+	private void awaitSender() throws Exception {
+		sender.submit(() -> { }).get();
+	}
+
+	private static BeerEventDTO stockChanged(Long beerId, int delta) {
+		return BeerEventDTO.builder().type(BeerEventType.STOCK_CHANGED).beerId(beerId).delta(delta).build();
+	}
+}
@@ -0,0 +1,148 @@
+package com.jpv.beerStock.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.enums.RequestCost;
+import com.jpv.beerStock.services.AdaptiveConcurrencyLimit;
+import com.jpv.beerStock.services.ClientRateLimiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Teste do filtro de limites: orçamento por cliente e tipo de requisição, e limite de concorrência
+public class RequestLimitFilterTest {
+
+	private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void whenRequestsAreClassifiedThenListingsAreSeparatedFromLookupsAndWrites() {
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH), is(RequestCost.LIST));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/page"), is(RequestCost.LIST));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/stats/types"), is(RequestCost.LIST));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/1/history"), is(RequestCost.LIST));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/Brahma"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/search/text"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("PATCH", BEER_API_URL_PATH + "/1/increment"), is(RequestCost.WRITE));
+	}
+
+	@Test
+	void whenBeerNameStartsWithAListPathThenItIsStillALookup() {
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/pageant"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/streamer"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/searchlight"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/history"), is(RequestCost.LOOKUP));
+		assertThat(RequestLimitFilter.costOf("GET", BEER_API_URL_PATH + "/Brahma/history"), is(RequestCost.LOOKUP));
+	}
+
+	@Test
+	void whenClientUsesUpItsListBudgetThenListingIsRejectedButLookupsStillPass() throws Exception {
+		//given
+		RequestLimitFilter filter = filter(new AdaptiveConcurrencyLimit(10, 1, 10, TimeUnit.SECONDS.toNanos(1)));
+
+		//when
+		MockHttpServletResponse first = perform(filter, BEER_API_URL_PATH, "client-a");
+		MockHttpServletResponse second = perform(filter, BEER_API_URL_PATH, "client-a");
+		MockHttpServletResponse otherClient = perform(filter, BEER_API_URL_PATH, "client-b");
+		MockHttpServletResponse lookup = perform(filter, BEER_API_URL_PATH + "/Brahma", "client-a");
+
+		//then
+		assertThat(first.getStatus(), is(equalTo(200)));
+		assertThat(second.getStatus(), is(equalTo(429)));
+		assertThat(second.getHeader("Retry-After"), is(equalTo("1")));
+		assertThat(second.getContentAsString(), containsString("/problems/rate-limited"));
+		assertThat(otherClient.getStatus(), is(equalTo(200)));
+		assertThat(lookup.getStatus(), is(equalTo(200)));
+		assertThat(meterRegistry.get("beerstock.limits.rejected").tag("cost", "list").tag("reason", "rate").counter().count(), is(equalTo(1.0)));
+	}
+
+	@Test
+	void whenConcurrencyLimitIsReachedThenRequestIsShedWithServiceUnavailable() throws Exception {
+		//given
+		AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(1, 1, 10, TimeUnit.SECONDS.toNanos(1));
+		RequestLimitFilter filter = filter(concurrencyLimit);
+		concurrencyLimit.tryAcquire();
+
+		//when
+		MockHttpServletResponse response = perform(filter, BEER_API_URL_PATH + "/Brahma", "client-a");
+
+		//then
+		assertThat(response.getStatus(), is(equalTo(503)));
+		assertThat(response.getContentAsString(), containsString("/problems/overloaded"));
+	}
+
+	@Test
+	void whenResponsesAreSlowThenConcurrencyLimitShrinksAndRecoversWhenTheyAreFastAgain() {
+		//given
+		AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(20, 5, 40, TimeUnit.MILLISECONDS.toNanos(100));
+
+		//when
+		for (int i = 0; i < 200; i++) {
+			concurrencyLimit.tryAcquire();
+			concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(500));
+		}
+		int afterSlow = concurrencyLimit.getLimit();
+		for (int i = 0; i < 5; i++) {
+			concurrencyLimit.tryAcquire();
+		}
+		for (int i = 0; i < 5; i++) {
+			concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+
+		//then
+		assertThat(afterSlow, is(equalTo(5)));
+		assertThat(concurrencyLimit.getLimit(), is(equalTo(7)));
+		assertThat(concurrencyLimit.getInFlight(), is(equalTo(0)));
+	}
+
+	@Test
+	void whenABurstOfRequestsAnswersSlowlyThenConcurrencyLimitIsCutOnlyOnce() {
+		//given
+		AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(20, 5, 40, TimeUnit.MILLISECONDS.toNanos(100));
+		for (int i = 0; i < 20; i++) {
+			concurrencyLimit.tryAcquire();
+		}
+
+		//when
+		for (int i = 0; i < 20; i++) {
+			concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(500));
+		}
+		int afterBurst = concurrencyLimit.getLimit();
+		concurrencyLimit.tryAcquire();
+		concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(500));
+
+		//then
+		assertThat(afterBurst, is(equalTo(18)));
+		assertThat(concurrencyLimit.getLimit(), is(equalTo(16)));
+	}
+
+	private RequestLimitFilter filter(AdaptiveConcurrencyLimit concurrencyLimit) {
+		Map<RequestCost, ClientRateLimiter.Budget> budgets = new EnumMap<>(RequestCost.class);
+		budgets.put(RequestCost.LIST, new ClientRateLimiter.Budget(1, 1));
+		budgets.put(RequestCost.LOOKUP, new ClientRateLimiter.Budget(100, 100));
+		ClientRateLimiter rateLimiter = new ClientRateLimiter(Caffeine.newBuilder().build(), budgets);
+		return new RequestLimitFilter(rateLimiter, concurrencyLimit, "X-Client-Id", new ObjectMapper(), meterRegistry);
+	}
+
+	private static MockHttpServletResponse perform(RequestLimitFilter filter, String path, String client) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.addHeader("X-Client-Id", client);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,92 @@
+package com.jpv.beerStock.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.StockReservationRepository;
+import com.jpv.beerStock.services.BeerCache;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.BeerSearchIndex;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.StockCounterEngine;
+import com.jpv.beerStock.services.StockOutbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerServiceMetricsAspectTest {
+
+	@Mock
+	private BeerRepository beerRepository;
+
+	@Mock
+	private StockReservationRepository reservationRepository;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private BeerService beerService;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BeerService(beerRepository, reservationRepository, null, BeerCache.disabled(), StockCounterEngine.disabled(), new BeerEventBus(16, 16, EventOverflowPolicy.DISCONNECT, Duration.ofMinutes(1), Executors.newSingleThreadExecutor()), StockOutbox.disabled(), BeerSearchIndex.disabled()));
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAspect(new BeerServiceMetricsAspect(meterRegistry));
+		beerService = proxyFactory.getProxy();
+	}
+
+	@Test
+	void whenOperationSucceedsThenItIsTimed() {
+		when(beerRepository.findAllDTOs()).thenReturn(Collections.emptyList());
+
+		beerService.listAll();
+
+		long count = meterRegistry.get(BeerServiceMetricsAspect.OPERATIONS_TIMER)
+				.tag("operation", "listAll").tag("outcome", "success").timer().count();
+		assertThat(count, is(equalTo(1L)));
+	}
+
+	@Test
+	void whenOperationFailsThenErrorIsCountedByExceptionType() {
+		when(beerRepository.findDTOByName("Unknown")).thenReturn(Optional.empty());
+
+		assertThrows(BeerNotFoundException.class, () -> beerService.findByName("Unknown"));
+
+		double errors = meterRegistry.get(BeerServiceMetricsAspect.ERRORS_COUNTER)
+				.tag("operation", "findByName").tag("exception", "BeerNotFoundException").counter().count();
+		long failures = meterRegistry.get(BeerServiceMetricsAspect.OPERATIONS_TIMER)
+				.tag("operation", "findByName").tag("outcome", "error").timer().count();
+		assertThat(errors, is(equalTo(1.0)));
+		assertThat(failures, is(equalTo(1L)));
+	}
+
+	@Test
+	void whenScheduledSweepRunsThenItIsNotTimedAsAnOperation() {
+		when(reservationRepository.findByExpiresAtBefore(any())).thenReturn(Collections.emptyList());
+
+		beerService.releaseExpiredReservations();
+
+		assertThat(meterRegistry.find(BeerServiceMetricsAspect.OPERATIONS_TIMER)
+				.tag("operation", "releaseExpiredReservations").timer(), is(nullValue()));
+	}
+}
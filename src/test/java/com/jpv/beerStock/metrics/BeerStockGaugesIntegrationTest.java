@@ -0,0 +1,50 @@
+package com.jpv.beerStock.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.repositories.BeerRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+//Teste de integração dos gauges de estoque contra o H2: max e quantidade grandes não estouram o int na consulta
+@SpringBootTest
+public class BeerStockGaugesIntegrationTest {
+
+	@Autowired
+	private BeerStockGauges gauges;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void tearDown() {
+		beerRepository.deleteAll();
+	}
+
+	@Test
+	void whenStockLevelsAreCountedThenLargeMaximumsDoNotOverflow() {
+		//given
+		beerRepository.save(new Beer(null, "Bottomless Lager", "Ambev", Integer.MAX_VALUE, Integer.MAX_VALUE, BeerType.LAGER, 0, 0L));
+		beerRepository.save(new Beer(null, "Half Bottomless Lager", "Ambev", Integer.MAX_VALUE, Integer.MAX_VALUE / 2, BeerType.LAGER, 0, 0L));
+
+		//when
+		gauges.refresh();
+
+		//then
+		assertThat(meterRegistry.get("beerstock.beers.at.max").gauge().value(), is(equalTo(1.0)));
+		assertThat(meterRegistry.get("beerstock.beers.near.max").gauge().value(), is(equalTo(1.0)));
+		assertThat(beerRepository.countWithStockAtLeast(49), is(equalTo(2L)));
+	}
+}
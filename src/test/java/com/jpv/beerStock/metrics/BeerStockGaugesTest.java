@@ -0,0 +1,38 @@
+package com.jpv.beerStock.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jpv.beerStock.repositories.BeerRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerStockGaugesTest {
+
+	@Mock
+	private BeerRepository beerRepository;
+
+	@Test
+	void whenGaugesAreRefreshedThenTheyReportStockAggregates() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		BeerStockGauges gauges = new BeerStockGauges(beerRepository, meterRegistry, 90);
+
+		when(beerRepository.sumQuantity()).thenReturn(1234L);
+		when(beerRepository.countWithStockAtLeast(100)).thenReturn(3L);
+		when(beerRepository.countWithStockAtLeast(90)).thenReturn(7L);
+
+		gauges.refresh();
+
+		assertThat(meterRegistry.get("beerstock.stock.total").gauge().value(), is(equalTo(1234.0)));
+		assertThat(meterRegistry.get("beerstock.beers.at.max").gauge().value(), is(equalTo(3.0)));
+		assertThat(meterRegistry.get("beerstock.beers.near.max").tag("percent", "90").gauge().value(), is(equalTo(7.0)));
+	}
+}
@@ -0,0 +1,94 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.builder.BeerDTOBuilder;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.services.BeerCache;
+
+public class BeerCacheTest {
+
+	private final BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private BeerCache beerCache;
+
+	@BeforeEach
+	void setUp() {
+		beerCache = new BeerCache(Caffeine.newBuilder().maximumSize(10).build());
+	}
+
+	@Test
+	void whenSameNameIsReadTwiceThenItIsLoadedOnce() {
+		BeerDTO first = beerCache.getByName(beerDTO.getName(), this::load);
+		BeerDTO second = beerCache.getByName(beerDTO.getName(), this::load);
+
+		assertThat(loads.get(), is(equalTo(1)));
+		assertThat(second, is(equalTo(beerDTO)));
+		assertThat(second, is(not(sameInstance(first))));
+	}
+
+	@Test
+	void whenBeerIsNotFoundThenMissIsNotCached() {
+		assertThat(beerCache.getByName("Unknown", name -> { loads.incrementAndGet(); return null; }), is(nullValue()));
+		assertThat(beerCache.getByName("Unknown", name -> { loads.incrementAndGet(); return null; }), is(nullValue()));
+
+		assertThat(loads.get(), is(equalTo(2)));
+	}
+
+	@Test
+	void whenNameOrIdIsEvictedThenBeerIsLoadedAgain() {
+		beerCache.getByName(beerDTO.getName(), this::load);
+		beerCache.evictName(beerDTO.getName());
+		beerCache.getByName(beerDTO.getName(), this::load);
+		beerCache.evictIds(Collections.singletonList(beerDTO.getId()));
+		beerCache.getByName(beerDTO.getName(), this::load);
+
+		assertThat(loads.get(), is(equalTo(3)));
+	}
+
+	@Test
+	void whenManyBeersPassThroughTheCacheThenEvictingACachedIdStillWorks() {
+		//given
+		for (long id = 100; id < 3000; id++) {
+			BeerDTO other = BeerDTOBuilder.builder().id(id).name("Beer " + id).build().toBeerDTO();
+			beerCache.getByName(other.getName(), name -> other);
+		}
+		beerCache.getByName(beerDTO.getName(), this::load);
+
+		//when
+		beerCache.evictIds(Collections.singletonList(beerDTO.getId()));
+		beerCache.getByName(beerDTO.getName(), this::load);
+
+		//then
+		assertThat(loads.get(), is(equalTo(2)));
+	}
+
+	@Test
+	void whenCacheIsDisabledThenEveryReadIsLoaded() {
+		BeerCache disabled = BeerCache.disabled();
+
+		disabled.getByName(beerDTO.getName(), this::load);
+		disabled.getByName(beerDTO.getName(), this::load);
+
+		assertThat(loads.get(), is(equalTo(2)));
+	}
+
+	private BeerDTO load(String name) {
+		loads.incrementAndGet();
+		return beerDTO;
+	}
+}
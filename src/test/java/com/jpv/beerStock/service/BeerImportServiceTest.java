@@ -0,0 +1,63 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
+import com.jpv.beerStock.services.BeerImportService;
+import com.jpv.beerStock.services.BeerService;
+
+//Teste da importação quando outro cliente cadastra um nome entre a consulta dos nomes e o insert do chunk
+@ExtendWith(MockitoExtension.class)
+public class BeerImportServiceTest {
+
+	@Mock
+	private BeerService beerService;
+
+	private BeerImportService beerImportService;
+
+	@BeforeEach
+	void setUp() {
+		beerImportService = new BeerImportService(beerService, new ObjectMapper(),
+				Validation.buildDefaultValidatorFactory().getValidator());
+	}
+
+	@Test
+	void whenNameIsRegisteredConcurrentlyThenOnlyThatRowIsRejected() throws Exception {
+		//given
+		String body = "{\"name\":\"Race Lager\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n"
+				+ "{\"name\":\"Calm Lager\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n";
+		when(beerService.createBeers(anyList()))
+				.thenThrow(new DataIntegrityViolationException("uk_beer_name"))
+				.thenReturn(new HashSet<>(Arrays.asList("Calm Lager")));
+
+		//when
+		BulkImportResultDTO result = beerImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		//then
+		verify(beerService, times(2)).createBeers(anyList());
+		assertThat(result.getCreated(), is(equalTo(1L)));
+		assertThat(result.getRejected(), is(equalTo(1L)));
+		assertThat(result.getErrors().get(0).getName(), is(equalTo("Race Lager")));
+	}
+}
@@ -0,0 +1,98 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.services.BeerSearchIndex;
+
+public class BeerSearchIndexTest {
+
+	private BeerSearchIndex searchIndex;
+
+	@BeforeEach
+	void setUp() {
+		searchIndex = new BeerSearchIndex(null);
+		searchIndex.add(Arrays.asList(
+				new BeerDTO(1L, "Brahma Chopp", "Ambev", 100, 10, BeerType.LAGER),
+				new BeerDTO(2L, "Colorado Appia", "Colorado", 100, 10, BeerType.WITBIER),
+				new BeerDTO(3L, "Colorado Indica", "Colorado", 100, 10, BeerType.IPA),
+				new BeerDTO(4L, "Bohemia Puro Malte", "Ambev", 100, 10, BeerType.LAGER),
+				new BeerDTO(5L, "Baden Baden Cristal", "Baden Baden", 100, 10, BeerType.ALE)));
+	}
+
+	@Test
+	void whenQueryIsAPrefixThenBeersWithAWordStartingWithItAreFound() {
+		assertThat(ids(searchIndex.search("bra", 10)), contains(1L));
+		assertThat(ids(searchIndex.search("ambev", 10)), contains(1L, 4L));
+	}
+
+	@Test
+	void whenEveryQueryWordMustMatchThenBrandAndTypeNarrowTheResult() {
+		assertThat(ids(searchIndex.search("colorado ipa", 10)), contains(3L));
+		assertThat(ids(searchIndex.search("ambev stout", 10)), is(empty()));
+	}
+
+	@Test
+	void whenBeersMatchDifferentlyThenNameAndWholeWordsRankFirst() {
+		//given
+		searchIndex.add(Arrays.asList(new BeerDTO(6L, "Colorado Lager", "Ambev", 100, 10, BeerType.LAGER)));
+
+		//when
+		List<BeerSearchHitDTO> hits = searchIndex.search("lager", 10);
+
+		//then
+		assertThat(hits.get(0).getId(), is(equalTo(6L)));
+		assertThat(hits.get(0).getScore(), is(equalTo(8)));
+		assertThat(ids(hits), contains(6L, 1L, 4L));
+	}
+
+	@Test
+	void whenQueryHasAccentsOrCaseThenItIsFoldedLikeTheIndex() {
+		assertThat(ids(searchIndex.search("BOHÊMIA", 10)), contains(4L));
+	}
+
+	@Test
+	void whenBeerIsRemovedThenItIsNoLongerFound() {
+		//when
+		searchIndex.remove(3L);
+
+		//then
+		assertThat(ids(searchIndex.search("colorado", 10)), contains(2L));
+		assertThat(searchIndex.size(), is(equalTo(4)));
+	}
+
+	@Test
+	void whenTheLastBeerOfABrandIsRemovedThenTheBrandIsDropped() {
+		//when
+		searchIndex.remove(2L);
+		int brandsWhileOneRemains = searchIndex.brandCount();
+		searchIndex.remove(3L);
+
+		//then
+		assertThat(brandsWhileOneRemains, is(equalTo(3)));
+		assertThat(searchIndex.brandCount(), is(equalTo(2)));
+		assertThat(ids(searchIndex.search("colorado", 10)), is(empty()));
+	}
+
+	@Test
+	void whenLimitIsSmallerThanTheMatchesThenOnlyTheBestAreReturned() {
+		assertThat(ids(searchIndex.search("b", 2)), contains(1L, 4L));
+	}
+
+	private static List<Long> ids(List<BeerSearchHitDTO> hits) {
+		return hits.stream().map(BeerSearchHitDTO::getId).collect(Collectors.toList());
+	}
+}
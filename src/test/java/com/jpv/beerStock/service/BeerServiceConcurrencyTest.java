@@ -0,0 +1,163 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.dto.StockReservationDTO;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+
+//Teste de integração: várias threads incrementando a mesma cerveja no H2
+@SpringBootTest
+public class BeerServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+	private static final int INCREMENTS_PER_THREAD = 25;
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	private Beer hotBeer;
+
+	@BeforeEach
+	void setUp() {
+		hotBeer = beerRepository.save(new Beer(null, "Concurrency Lager", "Ambev", 500, 0, BeerType.LAGER, 0, 0L));
+	}
+
+	@AfterEach
+	void tearDown() {
+		beerRepository.deleteById(hotBeer.getId());
+	}
+
+	@Test
+	void whenManyThreadsIncrementSameBeerThenNoUpdateIsLost() throws Exception {
+		int rejected = hammer(1);
+
+		assertThat(rejected, is(equalTo(0)));
+		assertThat(currentQuantity(), is(equalTo(THREADS * INCREMENTS_PER_THREAD)));
+	}
+
+	@Test
+	void whenIncrementsExceedMaxThenOnlyAllowedOnesAreApplied() throws Exception {
+		//16 * 25 * 2 = 800 solicitados, só 500 cabem no estoque
+		int rejected = hammer(2);
+
+		assertThat(currentQuantity(), is(equalTo(hotBeer.getMax())));
+		assertThat(rejected, is(equalTo((THREADS * INCREMENTS_PER_THREAD * 2 - hotBeer.getMax()) / 2)));
+	}
+
+	@Test
+	void whenManyThreadsDecrementSameBeerThenEveryAppliedDecrementIsKept() throws Exception {
+		hotBeer.setQuantity(500);
+		hotBeer = beerRepository.save(hotBeer);
+
+		int[] outcomes = new int[3];
+		List<Future<int[]>> results = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(() -> {
+				int[] counts = new int[3];
+				for (int j = 0; j < INCREMENTS_PER_THREAD; j++) {
+					try {
+						beerService.decrement(hotBeer.getId(), 1);
+						counts[0]++;
+					} catch (BeerStockContentionException e) {
+						counts[1]++;
+					} catch (BeerStockInsufficientException e) {
+						counts[2]++;
+					}
+				}
+				return counts;
+			}));
+		}
+		for (Future<int[]> result : results) {
+			int[] counts = result.get();
+			for (int i = 0; i < outcomes.length; i++) {
+				outcomes[i] += counts[i];
+			}
+		}
+		executor.shutdown();
+
+		//16 * 25 = 400 decrementos cabem nos 500 em estoque: nenhum falta, e a contenção não perde nenhum aplicado
+		assertThat(outcomes[0] + outcomes[1], is(equalTo(THREADS * INCREMENTS_PER_THREAD)));
+		assertThat(outcomes[0], is(greaterThan(0)));
+		assertThat(outcomes[2], is(equalTo(0)));
+		assertThat(currentQuantity(), is(equalTo(500 - outcomes[0])));
+	}
+
+	@Test
+	void whenReservationIsConfirmedOrReleasedThenStockFollows() throws Exception {
+		hotBeer.setQuantity(10);
+		hotBeer = beerRepository.save(hotBeer);
+
+		StockReservationDTO confirmed = beerService.reserve(hotBeer.getId(), 4, 60);
+		StockReservationDTO released = beerService.reserve(hotBeer.getId(), 6, 60);
+
+		//todo o estoque está reservado, nada mais pode sair
+		assertThrows(BeerStockInsufficientException.class, () -> beerService.decrement(hotBeer.getId(), 1));
+
+		beerService.confirmReservation(confirmed.getId());
+		beerService.releaseReservation(released.getId());
+
+		Beer beer = beerRepository.findById(hotBeer.getId()).get();
+		assertThat(beer.getQuantity(), is(equalTo(6)));
+		assertThat(beer.getReserved(), is(equalTo(0)));
+	}
+
+	private int hammer(int quantityToIncrement) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<>();
+		Callable<Integer> worker = () -> {
+			start.await();
+			int rejected = 0;
+			for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+				try {
+					beerService.increment(hotBeer.getId(), quantityToIncrement);
+				} catch (BeerStockExceededException e) {
+					rejected++;
+				}
+			}
+			return rejected;
+		};
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(worker));
+		}
+		start.countDown();
+		int rejected = 0;
+		for (Future<Integer> result : results) {
+			rejected += result.get();
+		}
+		executor.shutdown();
+		return rejected;
+	}
+
+	private int currentQuantity() {
+		return beerRepository.findById(hotBeer.getId()).get().getQuantity();
+	}
+}
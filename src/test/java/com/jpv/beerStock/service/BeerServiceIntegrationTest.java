@@ -0,0 +1,241 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerFilterDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.BeerStockStatsDTO;
+import com.jpv.beerStock.dto.BulkImportResultDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockMovementStatus;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerImportService;
+import com.jpv.beerStock.services.BeerService;
+
+//Teste de integração do BeerService contra o H2, sem mocks
+@SpringBootTest
+public class BeerServiceIntegrationTest {
+
+	private static final long UNKNOWN_BEER_ID = 999_999L;
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private BeerImportService beerImportService;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Beer beer;
+
+	@BeforeEach
+	void setUp() {
+		beer = beerRepository.save(new Beer(null, "Integration Ale", "Ambev", 100, 50, BeerType.ALE, 0, 0L));
+	}
+
+	@AfterEach
+	void tearDown() {
+		beerRepository.deleteAll();
+	}
+
+	@Test
+	void whenStockMovementsAreAppliedInBatchThenOnlyValidOnesChangeStock() {
+		List<StockMovementDTO> movements = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			movements.add(new StockMovementDTO(beer.getId(), i % 2 == 0 ? 1 : -1));
+		}
+		movements.add(new StockMovementDTO(beer.getId(), 60));
+		movements.add(new StockMovementDTO(beer.getId(), -60));
+		movements.add(new StockMovementDTO(UNKNOWN_BEER_ID, 1));
+
+		List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+
+		List<StockMovementStatus> tail = results.subList(1200, 1203).stream()
+				.map(StockMovementResultDTO::getStatus)
+				.collect(Collectors.toList());
+		assertThat(tail, contains(StockMovementStatus.EXCEEDED, StockMovementStatus.INSUFFICIENT, StockMovementStatus.NOT_FOUND));
+		assertThat(results.stream().filter(result -> result.getStatus() == StockMovementStatus.APPLIED).count(), is(equalTo(1200L)));
+		assertThat(beerRepository.findById(beer.getId()).get().getQuantity(), is(equalTo(50)));
+	}
+
+	@Test
+	void whenNdjsonCatalogueIsImportedThenValidNewBeersAreCreated() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 1234; i++) {
+			body.append(String.format("{\"name\":\"Import %d\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"IPA\"}%n", i));
+		}
+		body.append("{\"name\":\"Integration Ale\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"ALE\"}\n");
+		body.append("{\"name\":\"Import 0\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"IPA\"}\n");
+		body.append("{\"name\":\"No Brand\",\"max\":50,\"quantity\":10,\"type\":\"IPA\"}\n");
+		body.append("{\"name\":\"Pilsen\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"PILSEN\"}\n");
+		body.append("{\"name\":\"Last\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"STOUT\"}\n");
+
+		BulkImportResultDTO result = beerImportService.importNdjson(asStream(body.toString()));
+
+		assertThat(result.getReceived(), is(equalTo(1239L)));
+		assertThat(result.getCreated(), is(equalTo(1235L)));
+		assertThat(result.getRejected(), is(equalTo(4L)));
+		assertThat(beerRepository.count(), is(equalTo(1236L)));
+	}
+
+	@Test
+	void whenCsvCatalogueIsImportedThenValidNewBeersAreCreated() throws Exception {
+		String body = "name,brand,max,quantity,type\n"
+				+ "Csv Lager,Ambev,50,10,LAGER\n"
+				+ "Csv Stout,Ambev,50,10,STOUT\n"
+				+ "Csv Overflow,Ambev,900,10,STOUT\n";
+
+		BulkImportResultDTO result = beerImportService.importCsv(asStream(body));
+
+		assertThat(result.getCreated(), is(equalTo(2L)));
+		assertThat(result.getErrors().get(0).getName(), is(equalTo("Csv Overflow")));
+		assertThat(beerRepository.findByName("Csv Stout").isPresent(), is(true));
+	}
+
+	@Test
+	void whenCataloguePagesAreReadThenDtoQueriesKeepTheRequestedOrder() throws Exception {
+		beerRepository.save(new Beer(null, "Integration Zwickel", "Ambev", 100, 10, BeerType.LAGER, 0, 0L));
+		beerRepository.save(new Beer(null, "Integration Bock", "Ambev", 100, 10, BeerType.ALE, 0, 0L));
+
+		List<String> byName = new ArrayList<>();
+		List<BeerType> byType = new ArrayList<>();
+		String nameCursor = null;
+		String typeCursor = null;
+		do {
+			BeerPageDTO page = beerService.listPage(nameCursor, 1, BeerSort.NAME);
+			byName.add(page.getContent().get(0).getName());
+			nameCursor = page.getNextCursor();
+		} while (nameCursor != null);
+		do {
+			BeerPageDTO page = beerService.listPage(typeCursor, 1, BeerSort.TYPE);
+			byType.add(page.getContent().get(0).getType());
+			typeCursor = page.getNextCursor();
+		} while (typeCursor != null);
+
+		assertThat(byName, contains("Integration Ale", "Integration Bock", "Integration Zwickel"));
+		assertThat(byType, contains(BeerType.ALE, BeerType.ALE, BeerType.LAGER));
+	}
+
+	@Test
+	void whenCatalogueChangesThenItsETagChangesOnlyAfterCommit() throws Exception {
+		String initial = beerService.catalogueETag();
+		beerService.findByName(beer.getName());
+		String afterRead = beerService.catalogueETag();
+
+		List<String> duringWrite = new ArrayList<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			beerService.createBeers(Collections.singletonList(new BeerDTO(null, "Integration Porter", "Ambev", 50, 5, BeerType.STOUT)));
+			duringWrite.add(beerService.catalogueETag());
+		});
+		String afterCommit = beerService.catalogueETag();
+		beerService.increment(beer.getId(), 1);
+
+		assertThat(afterRead, is(equalTo(initial)));
+		assertThat(duringWrite.get(0), is(equalTo(initial)));
+		assertThat(afterCommit, is(not(equalTo(initial))));
+		assertThat(beerService.catalogueETag(), is(not(equalTo(afterCommit))));
+	}
+
+	@Test
+	void whenCatalogueIsSearchedThenOnlyMatchingBeersArePagedInIdOrder() throws Exception {
+		beerRepository.save(new Beer(null, "Integration Lager", "Ambev", 100, 95, BeerType.LAGER, 0, 0L));
+		beerRepository.save(new Beer(null, "Integration Amber", "Ambar_Co", 100, 92, BeerType.ALE, 0, 0L));
+		beerRepository.save(new Beer(null, "Integration Stout", "Ambev", 100, 91, BeerType.ALE, 0, 0L));
+		beerRepository.save(new Beer(null, "Integration Weiss", "Heineken", 100, 99, BeerType.ALE, 0, 0L));
+		BeerFilterDTO nearlyFullAmbevAles = BeerFilterDTO.builder().type(BeerType.ALE).brand("Amb").minStockPercent(90).build();
+
+		BeerPageDTO firstPage = beerService.search(nearlyFullAmbevAles, null, 1);
+		BeerPageDTO secondPage = beerService.search(nearlyFullAmbevAles, firstPage.getNextCursor(), 1);
+		BeerPageDTO underscoreIsLiteral = beerService.search(BeerFilterDTO.builder().brand("Amb_").build(), null, 10);
+
+		assertThat(firstPage.getContent().get(0).getName(), is(equalTo("Integration Amber")));
+		assertThat(secondPage.getContent().get(0).getName(), is(equalTo("Integration Stout")));
+		assertThat(secondPage.getNextCursor(), is(nullValue()));
+		assertThat(underscoreIsLiteral.getContent(), is(empty()));
+	}
+
+	@Test
+	void whenStockIsAggregatedThenTotalsArePerTypeAndBrand() {
+		beerRepository.save(new Beer(null, "Integration Lager", "Ambev", 200, 20, BeerType.LAGER, 0, 0L));
+		beerRepository.save(new Beer(null, "Integration Stout", "Heineken", 40, 4, BeerType.ALE, 0, 0L));
+
+		List<BeerStockStatsDTO> byType = beerService.stockStatsByType();
+		List<BeerStockStatsDTO> byBrand = beerService.stockStatsByBrand();
+
+		assertThat(byType, contains(new BeerStockStatsDTO("ALE", 2, 54, 140), new BeerStockStatsDTO("LAGER", 1, 20, 200)));
+		assertThat(byBrand, contains(new BeerStockStatsDTO("Ambev", 2, 70, 300), new BeerStockStatsDTO("Heineken", 1, 4, 40)));
+	}
+
+	private ByteArrayInputStream asStream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void whenStorefrontReadsHotBeersThenMostLookupsAreCacheHits() throws Exception {
+		List<BeerDTO> catalogue = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			catalogue.add(new BeerDTO(null, "Cached " + i, "Ambev", 50, 10, BeerType.IPA));
+		}
+		beerService.createBeers(catalogue);
+		double hitsBefore = cacheGets("hit");
+		double missesBefore = cacheGets("miss");
+
+		lookups(beerService);
+
+		double hits = cacheGets("hit") - hitsBefore;
+		double misses = cacheGets("miss") - missesBefore;
+		//cada um dos 200 nomes erra no máximo uma vez, o resto das 20.000 leituras acerta
+		assertThat(misses, is(lessThanOrEqualTo(200.0)));
+		assertThat(hits / (hits + misses), is(greaterThanOrEqualTo(0.99)));
+	}
+
+	private void lookups(BeerService service) throws Exception {
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			//80% das leituras vão para 10% do catálogo
+			int index = random.nextInt(10) < 8 ? random.nextInt(20) : random.nextInt(200);
+			service.findByName("Cached " + index);
+		}
+	}
+
+	private double cacheGets(String result) {
+		return meterRegistry.get("cache.gets").tag("cache", "beersByName").tag("result", result).functionCounter().count();
+	}
+}
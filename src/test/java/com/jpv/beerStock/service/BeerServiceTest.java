@@ -6,33 +6,73 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 
 import com.jpv.beerStock.builder.BeerDTOBuilder;
 import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerSearchHitDTO;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.BeerPageDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.dto.StockMovementResultDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
 import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.entity.StockReservation;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.BeerSort;
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+import com.jpv.beerStock.enums.StockMovementStatus;
 import com.jpv.beerStock.exceptions.BeerAlreadyRegisteredException;
 import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockContentionException;
 import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.BeerStockInsufficientException;
+import com.jpv.beerStock.exceptions.InvalidCursorException;
 import com.jpv.beerStock.mappers.BeerMapper;
 import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.StockReservationRepository;
+import com.jpv.beerStock.services.BeerCache;
+import com.jpv.beerStock.services.BeerStockUpdater;
+import com.jpv.beerStock.services.BeerSearchIndex;
 import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.StockCounterEngine;
+import com.jpv.beerStock.services.StockOutbox;
 
 //informa que estou utilizando o Mockito para criar as classes dublês
 /**
@@ -48,6 +88,27 @@ public class BeerServiceTest {
 	@Mock
 	private BeerRepository beerRepository;
 	
+	@Mock
+	private StockReservationRepository reservationRepository;
+	
+	@Mock
+	private BeerStockUpdater beerStockUpdater;
+	
+	@Spy
+	private BeerCache beerCache = BeerCache.disabled();
+
+	@Spy
+	private StockCounterEngine stockEngine = StockCounterEngine.disabled();
+
+	@Spy
+	private BeerEventBus beerEvents = new BeerEventBus(16, 16, EventOverflowPolicy.DISCONNECT, Duration.ofMinutes(1), Executors.newSingleThreadExecutor());
+
+	@Spy
+	private StockOutbox stockOutbox = StockOutbox.disabled();
+
+	@Spy
+	private BeerSearchIndex searchIndex = new BeerSearchIndex(null);
+	
 	private BeerMapper beerMapper = BeerMapper.INSTANCE;
 	
 	@InjectMocks
@@ -93,10 +154,9 @@ public class BeerServiceTest {
 	void whenValidBeerNameIsGivenThenReturnBeer() throws BeerNotFoundException {
 		//Given (Dada as os objetos cerveja)
 		BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-		Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
 		
-		//when (criar o mock do findByName)
-		Mockito.when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeer));
+		//when (criar o mock do findDTOByName)
+		Mockito.when(beerRepository.findDTOByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeerDTO));
 		
 		//then
 		BeerDTO beerDTO = beerService.findByName(expectedFoundBeerDTO.getName());
@@ -110,8 +170,8 @@ public class BeerServiceTest {
 		//Given (Dada as os objetos cerveja)
 		BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 				
-		//when (criar o mock do findByName)
-		Mockito.when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
+		//when (criar o mock do findDTOByName)
+		Mockito.when(beerRepository.findDTOByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
 	
 		//then validação da exception
 		assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedBeerDTO.getName()));
@@ -122,10 +182,9 @@ public class BeerServiceTest {
 	void whenListBeerReturnsListOfBeers() {
 		//Given
 		BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-		Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
 				
 		//when
-		when(beerRepository.findAll()).thenReturn(Collections.singletonList(expectedFoundBeer));
+		when(beerRepository.findAllDTOs()).thenReturn(Collections.singletonList(expectedFoundBeerDTO));
 		
 		//then
 		List<BeerDTO> foundedListBeerDTO = beerService.listAll();
@@ -139,7 +198,7 @@ public class BeerServiceTest {
 	void whenListBeerReturnsEmptyList() {
 		
 		//when
-		when(beerRepository.findAll()).thenReturn(Collections.emptyList());
+		when(beerRepository.findAllDTOs()).thenReturn(Collections.emptyList());
 		
 		//then
 		List<BeerDTO> foundedListBeerDTO = beerService.listAll();
@@ -173,37 +232,231 @@ public class BeerServiceTest {
 	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 	        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-	        //when
-	        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-	        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
 	        int quantityToIncrement = 10;
 	        int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+	        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+	        //when
+	        when(beerStockUpdater.increment(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(expectedBeer);
 
 	        // then
 	        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
 
 	        assertThat(expectedQuantityAfterIncrement, equalTo(incrementedBeerDTO.getQuantity()));
 	        assertThat(expectedQuantityAfterIncrement, lessThan(expectedBeerDTO.getMax()));
+	        verify(beerEvents).publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, incrementedBeerDTO, quantityToIncrement));
+	        assertThat(beerService.catalogueETag(), equalTo(beerEvents.lastEventId()));
 	    }
 	 
 	 @Test
-	    void whenIncrementAfterSumIsGreatherThanMaxThenThrowException() {
+	    void whenIncrementAfterSumIsGreatherThanMaxThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
 	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-	        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
-
-	        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
 	        int quantityToIncrement = 45;
+
+	        when(beerStockUpdater.increment(expectedBeerDTO.getId(), quantityToIncrement))
+	                .thenThrow(new BeerStockExceededException(expectedBeerDTO.getId(), quantityToIncrement));
 	        assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
+	        verify(beerEvents, never()).publish(any());
 	    }
 
 	    @Test
-	    void whenIncrementIsCalledWithInvalidIdThenThrowException() {
+	    void whenIncrementIsCalledWithInvalidIdThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
 	        int quantityToIncrement = 10;
 
-	        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+	        when(beerStockUpdater.increment(INVALID_BEER_ID, quantityToIncrement)).thenThrow(new BeerNotFoundException(INVALID_BEER_ID));
 
 	        assertThrows(BeerNotFoundException.class, () -> beerService.increment(INVALID_BEER_ID, quantityToIncrement));
 	    }
+
+	    @Test
+	    void whenFirstPageHasMoreRowsThenNextCursorIsReturned() throws InvalidCursorException {
+	        BeerDTO first = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+	        BeerDTO second = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+	        when(beerRepository.findAllBy(any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+
+	        BeerPageDTO page = beerService.listPage(null, 1, BeerSort.NAME);
+
+	        assertThat(page.getContent(), hasSize(1));
+	        assertThat(page.getContent().get(0).getName(), is(equalTo("Brahma")));
+	        assertThat(page.getNextCursor(), is(notNullValue()));
+	    }
+
+	    @Test
+	    void whenCursorIsGivenThenNextPageStartsAfterIt() throws InvalidCursorException {
+	        BeerDTO first = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+	        BeerDTO second = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+	        when(beerRepository.findAllBy(any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+	        when(beerRepository.findByNameGreaterThan(eq("Brahma"), any(Pageable.class))).thenReturn(Collections.singletonList(second));
+
+	        String cursor = beerService.listPage(null, 1, BeerSort.NAME).getNextCursor();
+	        BeerPageDTO page = beerService.listPage(cursor, 1, BeerSort.NAME);
+
+	        assertThat(page.getContent().get(0).getName(), is(equalTo("Skol")));
+	        assertThat(page.getNextCursor(), is(nullValue()));
+	    }
+
+	    @Test
+	    void whenCursorIssuedForAnotherSortThenThrowException() throws InvalidCursorException {
+	        BeerDTO first = BeerDTOBuilder.builder().id(1L).build().toBeerDTO();
+	        BeerDTO second = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+	        when(beerRepository.findAllBy(any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+
+	        String cursor = beerService.listPage(null, 1, BeerSort.ID).getNextCursor();
+
+	        assertThrows(InvalidCursorException.class, () -> beerService.listPage(cursor, 1, BeerSort.TYPE));
+	        assertThrows(InvalidCursorException.class, () -> beerService.listPage("not-a-cursor", 1, BeerSort.ID));
+	    }
+
+	    @Test
+	    void whenStreamAllIsCalledThenEveryBeerIsConsumed() {
+	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+	        when(beerRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(expectedBeerDTO));
+
+	        List<BeerDTO> streamed = new ArrayList<>();
+	        beerService.streamAll(streamed::add);
+
+	        assertThat(streamed, hasSize(1));
+	        assertThat(streamed.get(0), is(equalTo(expectedBeerDTO)));
+	    }
+
+	    @Test
+	    void whenDecrementIsCalledThenDecrementBeerStock() throws Exception {
+	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+	        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+	        expectedBeer.setQuantity(expectedBeerDTO.getQuantity() - 5);
+
+	        when(beerStockUpdater.decrement(expectedBeerDTO.getId(), 5)).thenReturn(expectedBeer);
+
+	        BeerDTO decrementedBeerDTO = beerService.decrement(expectedBeerDTO.getId(), 5);
+
+	        assertThat(decrementedBeerDTO.getQuantity(), is(equalTo(expectedBeerDTO.getQuantity() - 5)));
+	    }
+
+	    @Test
+	    void whenDecrementConflictsThenItIsRetried() throws Exception {
+	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+	        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+
+	        when(beerStockUpdater.decrement(expectedBeerDTO.getId(), 5))
+	                .thenThrow(new OptimisticLockingFailureException("conflict"))
+	                .thenReturn(expectedBeer);
+
+	        beerService.decrement(expectedBeerDTO.getId(), 5);
+
+	        verify(beerStockUpdater, times(2)).decrement(expectedBeerDTO.getId(), 5);
+	    }
+
+	    @Test
+	    void whenDecrementKeepsConflictingThenThrowException() throws Exception {
+	        when(beerStockUpdater.decrement(INVALID_BEER_ID, 5)).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+	        assertThrows(BeerStockContentionException.class, () -> beerService.decrement(INVALID_BEER_ID, 5));
+	    }
+
+	    @Test
+	    void whenDecrementExceedsStockThenThrowException() throws Exception {
+	        when(beerStockUpdater.decrement(INVALID_BEER_ID, 50)).thenThrow(new BeerStockInsufficientException(INVALID_BEER_ID, 50));
+
+	        assertThrows(BeerStockInsufficientException.class, () -> beerService.decrement(INVALID_BEER_ID, 50));
+	    }
+
+	    @Test
+	    void whenReserveIsCalledThenReservationIsReturned() throws Exception {
+	        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+	        StockReservation reservation = new StockReservation("r-1", expectedBeerDTO.getId(), 3, Instant.now());
+
+	        when(beerStockUpdater.reserve(eq(expectedBeerDTO.getId()), eq(3), any())).thenReturn(reservation);
+
+	        StockReservationDTO reservationDTO = beerService.reserve(expectedBeerDTO.getId(), 3, 60);
+
+	        assertThat(reservationDTO.getId(), is(equalTo("r-1")));
+	        assertThat(reservationDTO.getQuantity(), is(equalTo(3)));
+	    }
+
+	    @Test
+	    void whenExpiredReservationsAreSweptThenTheyAreReleased() throws Exception {
+	        StockReservation reservation = new StockReservation("r-1", 1L, 3, Instant.now());
+
+	        when(reservationRepository.findByExpiresAtBefore(any())).thenReturn(Collections.singletonList(reservation));
+
+	        beerService.releaseExpiredReservations();
+
+	        verify(beerStockUpdater, times(1)).release("r-1");
+	    }
+
+	    @Test
+	    void whenStockMovementsAreAppliedThenEachOneGetsItsStatus() {
+	        List<StockMovementDTO> movements = Arrays.asList(
+	                new StockMovementDTO(1L, 5),
+	                new StockMovementDTO(2L, 5),
+	                new StockMovementDTO(1L, 100),
+	                new StockMovementDTO(1L, -100));
+
+	        when(beerRepository.applyQuantityDeltas(movements)).thenReturn(new int[] {1, 0, 0, 0});
+	        when(beerRepository.findExistingIds(any())).thenReturn(Collections.singletonList(1L));
+
+	        List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+
+	        assertThat(results.get(0).getStatus(), is(equalTo(StockMovementStatus.APPLIED)));
+	        assertThat(results.get(1).getStatus(), is(equalTo(StockMovementStatus.NOT_FOUND)));
+	        assertThat(results.get(2).getStatus(), is(equalTo(StockMovementStatus.EXCEEDED)));
+	        assertThat(results.get(3).getStatus(), is(equalTo(StockMovementStatus.INSUFFICIENT)));
+	    }
+
+	    @Test
+	    @SuppressWarnings("unchecked")
+	    void whenBeersAreCreatedInBulkThenRegisteredAndRepeatedNamesAreSkipped() {
+	        List<BeerDTO> beerDTOs = Arrays.asList(
+	                BeerDTOBuilder.builder().name("Brahma").build().toBeerDTO(),
+	                BeerDTOBuilder.builder().name("Skol").build().toBeerDTO(),
+	                BeerDTOBuilder.builder().name("Skol").build().toBeerDTO(),
+	                BeerDTOBuilder.builder().name("Bohemia").build().toBeerDTO());
+
+	        when(beerRepository.findExistingNames(any())).thenReturn(Collections.singletonList("Brahma"));
+
+	        Set<String> createdNames = beerService.createBeers(beerDTOs);
+
+	        ArgumentCaptor<List<Beer>> inserted = ArgumentCaptor.forClass(List.class);
+	        verify(beerRepository).insertAllAndDetach(inserted.capture());
+	        assertThat(createdNames, containsInAnyOrder("Skol", "Bohemia"));
+	        assertThat(inserted.getValue().stream().map(Beer::getName).collect(Collectors.toList()), contains("Skol", "Bohemia"));
+	        assertThat(inserted.getValue().get(0).getId(), is(nullValue()));
+	    }
+
+	    @Test
+	    void whenBeerIsDeletedThenItIsEvictedFromCache() throws BeerNotFoundException {
+	        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+	        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+
+	        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+
+	        beerService.deleteById(expectedDeletedBeerDTO.getId());
+
+	        verify(beerCache, times(1)).evictName(expectedDeletedBeerDTO.getName());
+	    }
+
+	    @Test
+	    void whenBeerIsCreatedAndDeletedThenCatalogueSearchFollows() throws Exception {
+	        //given
+	        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+	        Beer beer = beerMapper.toModel(beerDTO);
+	        when(beerRepository.findByName(beerDTO.getName())).thenReturn(Optional.empty());
+	        when(beerRepository.save(beer)).thenReturn(beer);
+	        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+
+	        //when
+	        beerService.createBeer(beerDTO);
+	        List<BeerSearchHitDTO> afterCreate = beerService.searchCatalogue(beerDTO.getName().substring(0, 3), BeerService.DEFAULT_SEARCH_HITS);
+	        beerService.deleteById(beerDTO.getId());
+
+	        //then
+	        assertThat(afterCreate.size(), is(equalTo(1)));
+	        assertThat(afterCreate.get(0).getId(), is(equalTo(beerDTO.getId())));
+	        assertThat(beerService.searchCatalogue(beerDTO.getName(), BeerService.DEFAULT_SEARCH_HITS).isEmpty(), is(true));
+	    }
 }
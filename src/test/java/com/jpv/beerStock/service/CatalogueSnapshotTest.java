@@ -0,0 +1,121 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.services.CatalogueSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Teste do snapshot do catálogo com versão e lista controladas pelo teste
+public class CatalogueSnapshotTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final List<BeerDTO> catalogue = new ArrayList<>(Arrays.asList(
+			new BeerDTO(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER),
+			new BeerDTO(2L, "Guinness", "Diageo", 50, 20, BeerType.STOUT)));
+
+	private String version = "1-1";
+
+	@Test
+	void whenBuiltThenWholeCatalogueAndTypeSlicesAreServedAsJson() throws Exception {
+		//given
+		CatalogueSnapshot snapshot = snapshot(Duration.ofMinutes(1));
+
+		//when
+		snapshot.refresh();
+		CatalogueSnapshot.Copy all = snapshot.read(null);
+		CatalogueSnapshot.Copy stouts = snapshot.read(BeerType.STOUT);
+
+		//then
+		assertThat(all.getVersion(), is(equalTo("1-1")));
+		assertThat(all.getStalenessMillis(), is(equalTo(0L)));
+		assertThat(Arrays.asList(objectMapper.readValue(all.getSlice().getJson(), BeerDTO[].class)), is(equalTo(catalogue)));
+		assertThat(Arrays.asList(objectMapper.readValue(new GZIPInputStream(new ByteArrayInputStream(all.getSlice().getGzippedJson())), BeerDTO[].class)),
+				is(equalTo(catalogue)));
+		assertThat(stouts.getSlice().getBeers(), contains(catalogue.get(1)));
+		assertThat(snapshot.read(BeerType.IPA).getSlice().getBeers(), is(empty()));
+	}
+
+	@Test
+	void whenCatalogueIsUnchangedThenRefreshKeepsTheSameCopy() {
+		//given
+		CatalogueSnapshot snapshot = snapshot(Duration.ofMinutes(1));
+		snapshot.refresh();
+		CatalogueSnapshot.Slice built = snapshot.read(null).getSlice();
+
+		//when
+		snapshot.refresh();
+
+		//then
+		assertThat(snapshot.read(null).getSlice(), is(sameInstance(built)));
+		assertThat(loads.get(), is(equalTo(1)));
+	}
+
+	@Test
+	void whenCatalogueChangesThenOldCopyIsServedAsStaleUntilTheNextRefresh() throws Exception {
+		//given
+		CatalogueSnapshot snapshot = snapshot(Duration.ofMinutes(1));
+		snapshot.refresh();
+		catalogue.add(new BeerDTO(3L, "Colorado", "Ambev", 50, 5, BeerType.IPA));
+		version = "1-2";
+		Thread.sleep(20);
+
+		//when
+		CatalogueSnapshot.Copy stale = snapshot.read(null);
+		snapshot.refresh();
+		CatalogueSnapshot.Copy refreshed = snapshot.read(null);
+
+		//then
+		assertThat(stale.getVersion(), is(equalTo("1-1")));
+		assertThat(stale.getStalenessMillis(), is(greaterThanOrEqualTo(20L)));
+		assertThat(stale.getSlice().getBeers().size(), is(equalTo(2)));
+		assertThat(refreshed.getVersion(), is(equalTo("1-2")));
+		assertThat(refreshed.getStalenessMillis(), is(equalTo(0L)));
+		assertThat(refreshed.getSlice().getBeers().size(), is(equalTo(3)));
+	}
+
+	@Test
+	void whenCopyIsStalerThanAllowedThenNoneIsServed() throws Exception {
+		//given
+		CatalogueSnapshot snapshot = snapshot(Duration.ofMillis(10));
+		snapshot.refresh();
+
+		//when
+		version = "1-2";
+		Thread.sleep(20);
+
+		//then
+		assertThat(snapshot.read(null), is(nullValue()));
+		assertThat(CatalogueSnapshot.disabled().read(null), is(nullValue()));
+	}
+
+	private CatalogueSnapshot snapshot(Duration maxStaleness) {
+		return new CatalogueSnapshot(() -> version, () -> {
+			loads.incrementAndGet();
+			return new ArrayList<>(catalogue);
+		}, objectMapper, maxStaleness, new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,120 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.exceptions.IdempotentRequestInProgressException;
+import com.jpv.beerStock.services.IdempotencyStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IdempotencyStoreTest {
+
+	private static final String KEY = "retry-1";
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private IdempotencyStore idempotencyStore;
+
+	@BeforeEach
+	void setUp() {
+		idempotencyStore = new IdempotencyStore(Caffeine.newBuilder().maximumSize(10).build(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void whenIdenticalRequestArrivesWhileFirstRunsThenItWaitsAndGetsTheSameResult() throws Exception {
+		//given
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<IdempotencyStore.Result<Integer>> first = executor.submit(() -> idempotencyStore.execute("increment", KEY, 5, () -> {
+			started.countDown();
+			await(release);
+			return calls.incrementAndGet();
+		}));
+		started.await();
+
+		//when
+		Future<IdempotencyStore.Result<Integer>> retry = executor.submit(() -> idempotencyStore.execute("increment", KEY, 5, calls::incrementAndGet));
+		release.countDown();
+
+		//then
+		assertThat(first.get().getValue(), is(equalTo(1)));
+		assertThat(first.get().isReplayed(), is(false));
+		assertThat(retry.get().getValue(), is(equalTo(1)));
+		assertThat(retry.get().isReplayed(), is(true));
+		assertThat(calls.get(), is(equalTo(1)));
+	}
+
+	@Test
+	void whenFirstRequestFailsThenRetryRunsAgain() throws Exception {
+		//when
+		assertThrows(BeerStockExceededException.class, () -> idempotencyStore.execute("increment", KEY, 5, () -> {
+			calls.incrementAndGet();
+			throw new BeerStockExceededException(1L, 5);
+		}));
+		IdempotencyStore.Result<Integer> retry = idempotencyStore.execute("increment", KEY, 5, calls::incrementAndGet);
+
+		//then
+		assertThat(retry.getValue(), is(equalTo(2)));
+		assertThat(retry.isReplayed(), is(false));
+	}
+
+	@Test
+	void whenFirstRequestOutlivesInFlightTimeoutThenRetryIsTurnedAway() throws Exception {
+		//given
+		idempotencyStore = new IdempotencyStore(Caffeine.newBuilder().maximumSize(10).build(), Duration.ofMillis(50), new SimpleMeterRegistry());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.submit(() -> idempotencyStore.execute("increment", KEY, 5, () -> {
+			started.countDown();
+			await(release);
+			return 1;
+		}));
+		started.await();
+
+		//then
+		assertThrows(IdempotentRequestInProgressException.class, () -> idempotencyStore.execute("increment", KEY, 5, calls::incrementAndGet));
+		release.countDown();
+		assertThat(calls.get(), is(equalTo(0)));
+	}
+
+	@Test
+	void whenSameKeyIsUsedForAnotherOperationThenBothRun() throws Exception {
+		//when
+		idempotencyStore.execute("increment", KEY, 5, calls::incrementAndGet);
+		idempotencyStore.execute("createBeer", KEY, 5, calls::incrementAndGet);
+
+		//then
+		assertThat(calls.get(), is(equalTo(2)));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
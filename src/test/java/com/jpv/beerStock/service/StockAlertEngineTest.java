@@ -0,0 +1,221 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.StockAlertDTO;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.EventOverflowPolicy;
+import com.jpv.beerStock.enums.StockAlertStatus;
+import com.jpv.beerStock.enums.StockAlertType;
+import com.jpv.beerStock.services.BeerEventBus;
+import com.jpv.beerStock.services.StockAlertEngine;
+import com.jpv.beerStock.services.StockAlertRules;
+import com.jpv.beerStock.services.WebhookAlertSink;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Teste do motor de alertas ligado a um BeerEventBus real, com o catálogo lido de um mapa do teste
+public class StockAlertEngineTest {
+
+	private static final long BEER_ID = 1L;
+
+	private final Map<Long, BeerDTO> catalogue = new HashMap<>();
+
+	private final ExecutorService evaluator = Executors.newSingleThreadExecutor();
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private final WebhookAlertSink webhook = new WebhookAlertSink(100, objectMapper);
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	private BeerEventBus beerEventBus;
+
+	private StockAlertEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		beerEventBus = new BeerEventBus(16, 16, EventOverflowPolicy.DISCONNECT, Duration.ofMinutes(1), Executors.newSingleThreadExecutor());
+	}
+
+	@AfterEach
+	void tearDown() {
+		beerEventBus.close();
+		evaluator.shutdownNow();
+	}
+
+	@Test
+	void whenQuantityMovesAroundTheThresholdThenHysteresisKeepsItToOneAlertAndOneResolution() throws Exception {
+		//given
+		start(StockAlertRules.of(new StockAlertRules.Thresholds(10, 90)), Duration.ZERO);
+
+		//when
+		for (int quantity : new int[] { 50, 9, 10, 9, 12, 9, 15, 40 }) {
+			change(BEER_ID, quantity);
+		}
+		awaitEvaluator();
+
+		//then
+		List<StockAlertDTO> sent = sent();
+		assertThat(sent.stream().map(StockAlertDTO::getStatus).collect(Collectors.toList()),
+				contains(StockAlertStatus.FIRING, StockAlertStatus.RESOLVED));
+		assertThat(sent.get(0).getType(), is(equalTo(StockAlertType.LOW_STOCK)));
+		assertThat(sent.get(0).getQuantity(), is(equalTo(9)));
+		assertThat(sent.get(1).getQuantity(), is(equalTo(15)));
+		assertThat(engine.firing(), is(empty()));
+	}
+
+	@Test
+	void whenRulesAreSetAtSeveralLevelsThenTheMostSpecificOneApplies() throws Exception {
+		//given
+		Map<String, StockAlertRules.Thresholds> byName = Collections.singletonMap("Colorado", new StockAlertRules.Thresholds(50, null));
+		Map<String, StockAlertRules.Thresholds> byBrand = Collections.singletonMap("Ambev", new StockAlertRules.Thresholds(30, null));
+		Map<BeerType, StockAlertRules.Thresholds> byType = Collections.singletonMap(BeerType.IPA, new StockAlertRules.Thresholds(20, 60));
+		start(new StockAlertRules(new StockAlertRules.Thresholds(10, 90), byName, byBrand, byType), Duration.ZERO);
+		catalogue.put(2L, new BeerDTO(2L, "Colorado", "Ambev", 100, 0, BeerType.IPA));
+		catalogue.put(3L, new BeerDTO(3L, "Skol", "Ambev", 100, 0, BeerType.LAGER));
+		catalogue.put(4L, new BeerDTO(4L, "Lagunitas", "Heineken", 100, 0, BeerType.IPA));
+		catalogue.put(5L, new BeerDTO(5L, "Guinness", "Diageo", 100, 0, BeerType.STOUT));
+
+		//when
+		change(2L, 45);
+		change(3L, 25);
+		change(4L, 65);
+		change(5L, 15);
+		awaitEvaluator();
+
+		//then
+		Map<Long, List<StockAlertType>> firing = engine.firing().stream()
+				.collect(Collectors.groupingBy(StockAlertDTO::getBeerId, Collectors.mapping(StockAlertDTO::getType, Collectors.toList())));
+		assertThat(firing.get(2L), contains(StockAlertType.LOW_STOCK));
+		assertThat(firing.get(3L), contains(StockAlertType.LOW_STOCK));
+		assertThat(firing.get(4L), contains(StockAlertType.NEAR_MAX));
+		assertThat(firing.containsKey(5L), is(false));
+	}
+
+	@Test
+	void whenAlertFiresAgainWithinTheDedupWindowThenNeitherItNorItsResolutionIsSent() throws Exception {
+		//given
+		start(StockAlertRules.of(new StockAlertRules.Thresholds(10, 90)), Duration.ofMinutes(10));
+
+		//when
+		for (int quantity : new int[] { 5, 50, 5, 50, 95 }) {
+			change(BEER_ID, quantity);
+		}
+		awaitEvaluator();
+
+		//then
+		assertThat(sent().stream().map(alert -> alert.getType() + ":" + alert.getStatus()).collect(Collectors.toList()),
+				contains("LOW_STOCK:FIRING", "LOW_STOCK:RESOLVED", "NEAR_MAX:FIRING"));
+	}
+
+	@Test
+	void whenBeerFlapsAndThenStaysLowThenTheHeldAlertIsSentOnceTheDedupWindowEnds() throws Exception {
+		//given
+		start(StockAlertRules.of(new StockAlertRules.Thresholds(10, 90)), Duration.ofMinutes(10));
+		for (int quantity : new int[] { 5, 50, 5, 50, 5 }) {
+			change(BEER_ID, quantity);
+		}
+
+		//when
+		engine.sendHeld();
+		awaitEvaluator();
+		List<StockAlertDTO> sentWithinWindow = sent();
+		nanoTime.addAndGet(Duration.ofMinutes(10).toNanos());
+		engine.sendHeld();
+		awaitEvaluator();
+
+		//then
+		assertThat(sentWithinWindow.stream().map(StockAlertDTO::getStatus).collect(Collectors.toList()),
+				contains(StockAlertStatus.FIRING, StockAlertStatus.RESOLVED));
+		assertThat(sent().stream().map(StockAlertDTO::getStatus).collect(Collectors.toList()), contains(StockAlertStatus.FIRING));
+		assertThat(engine.firing().stream().map(StockAlertDTO::getType).collect(Collectors.toList()), contains(StockAlertType.LOW_STOCK));
+	}
+
+	@Test
+	void whenBeerIsDeletedThenItsAlertsAreDroppedWithoutResolution() throws Exception {
+		//given
+		start(StockAlertRules.of(new StockAlertRules.Thresholds(10, 90)), Duration.ZERO);
+		change(BEER_ID, 5);
+
+		//when
+		catalogue.remove(BEER_ID);
+		beerEventBus.publish(BeerEventDTO.builder().type(BeerEventType.DELETED).beerId(BEER_ID).build());
+		awaitEvaluator();
+
+		//then
+		assertThat(sent().size(), is(equalTo(1)));
+		assertThat(engine.firing(), is(empty()));
+	}
+
+	@Test
+	void whenEvaluatorShutsDownWhileHeldAlertsAreCheckedThenTheCheckIsSkipped() {
+		//given
+		ExecutorService closingEvaluator = mock(ExecutorService.class);
+		doThrow(new RejectedExecutionException("shut down")).when(closingEvaluator).execute(any());
+		StockAlertEngine closingEngine = new StockAlertEngine(StockAlertRules.of(new StockAlertRules.Thresholds(10, 90)),
+				ids -> Collections.emptyList(), Collections.singletonList(webhook), 5, Duration.ZERO, closingEvaluator,
+				nanoTime::get, new SimpleMeterRegistry());
+
+		//then
+		assertDoesNotThrow(closingEngine::sendHeld);
+	}
+
+	private void start(StockAlertRules rules, Duration dedupWindow) {
+		engine = new StockAlertEngine(rules,
+				ids -> ids.stream().filter(catalogue::containsKey).map(catalogue::get).collect(Collectors.toList()),
+				Collections.singletonList(webhook), 5, dedupWindow, evaluator, nanoTime::get, new SimpleMeterRegistry());
+		beerEventBus.addListener(engine::onEvents);
+	}
+
+	// o mapa faz o papel do banco: a cerveja muda antes do evento, como num commit
+	private void change(Long beerId, int quantity) throws Exception {
+		BeerDTO beer = catalogue.computeIfAbsent(beerId, id -> new BeerDTO(id, "Brahma", "Ambev", 100, 0, BeerType.LAGER));
+		beer = new BeerDTO(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), quantity, beer.getType());
+		catalogue.put(beerId, beer);
+		beerEventBus.publish(BeerEventDTO.of(BeerEventType.STOCK_CHANGED, beer, null));
+		// um lote por mudança, como quando o avaliador acompanha as escritas
+		awaitEvaluator();
+	}
+
+	private void awaitEvaluator() throws Exception {
+		evaluator.submit(() -> { }).get(5, TimeUnit.SECONDS);
+	}
+
+	private List<StockAlertDTO> sent() throws Exception {
+		List<StockAlertDTO> alerts = new ArrayList<>();
+		for (String body : webhook.poll(Integer.MAX_VALUE)) {
+			alerts.add(objectMapper.readValue(body, StockAlertDTO.class));
+		}
+		return alerts;
+	}
+}
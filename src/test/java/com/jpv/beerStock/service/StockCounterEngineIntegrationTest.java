@@ -0,0 +1,86 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.BeerStockUpdater;
+import com.jpv.beerStock.services.StockCounterEngine;
+
+//Teste de integração: incrementos pelo motor write-behind chegam ao H2 no flush
+@SpringBootTest(properties = {
+		"beerstock.stock-engine.enabled=true",
+		"beerstock.stock-engine.flush-interval-ms=3600000",
+		"beerstock.stock-engine.wal-directory=target/test-stock-wal"
+})
+public class StockCounterEngineIntegrationTest {
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private StockCounterEngine stockEngine;
+
+	@Autowired
+	private BeerStockUpdater beerStockUpdater;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	private Beer beer;
+
+	@BeforeEach
+	void setUp() {
+		beer = beerRepository.save(new Beer(null, "Write Behind Lager", "Ambev", 100, 10, BeerType.LAGER, 0, 0L));
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		beerService.deleteById(beer.getId());
+	}
+
+	@Test
+	void whenIncrementsAreFlushedThenDatabaseAndCheckpointAreUpdated() throws Exception {
+		//given
+		long flushedBefore = beerStockUpdater.flushedSequence();
+		beerService.increment(beer.getId(), 5);
+		beerService.increment(beer.getId(), 6);
+
+		//when
+		int quantityBeforeFlush = currentQuantity();
+		stockEngine.flush();
+
+		//then
+		assertThat(quantityBeforeFlush, is(equalTo(10)));
+		assertThat(beerService.findByName(beer.getName()).getQuantity(), is(equalTo(21)));
+		assertThat(currentQuantity(), is(equalTo(21)));
+		assertThat(beerStockUpdater.flushedSequence(), is(equalTo(flushedBefore + 2)));
+	}
+
+	@Test
+	void whenBeerIsDecrementedThenPendingIncrementsAreAppliedFirst() throws Exception {
+		//given
+		beerService.increment(beer.getId(), 30);
+
+		//when
+		beerService.decrement(beer.getId(), 35);
+		beerService.increment(beer.getId(), 1);
+
+		//then
+		assertThat(beerService.findByName(beer.getName()).getQuantity(), is(equalTo(6)));
+	}
+
+	private int currentQuantity() {
+		return beerRepository.findById(beer.getId()).map(Beer::getQuantity).orElseThrow(IllegalStateException::new);
+	}
+}
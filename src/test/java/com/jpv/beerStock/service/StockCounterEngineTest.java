@@ -0,0 +1,206 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jpv.beerStock.builder.BeerDTOBuilder;
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.mappers.BeerMapper;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.services.BeerCache;
+import com.jpv.beerStock.services.BeerStockUpdater;
+import com.jpv.beerStock.services.StockCounterEngine;
+import com.jpv.beerStock.services.StockWriteAheadLog;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCounterEngineTest {
+
+	@TempDir
+	Path walDirectory;
+
+	@Mock
+	private BeerRepository beerRepository;
+
+	@Mock
+	private BeerStockUpdater beerStockUpdater;
+
+	@Spy
+	private BeerCache beerCache = BeerCache.disabled();
+
+	private final BeerDTO beerDTO = BeerDTOBuilder.builder().max(50).quantity(10).build().toBeerDTO();
+
+	private StockCounterEngine stockEngine;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		stockEngine = startEngine();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		stockEngine.close();
+	}
+
+	@Test
+	void whenIncrementIsCalledThenQuantityIsReturnedBeforeItIsFlushed() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+
+		//when
+		BeerDTO incrementedBeer = stockEngine.increment(beerDTO.getId(), 5);
+
+		//then
+		assertThat(incrementedBeer.getQuantity(), is(equalTo(15)));
+		assertThat(stockEngine.withCurrentStock(beerDTO).getQuantity(), is(equalTo(15)));
+		verify(beerStockUpdater, never()).applyFlushedIncrements(anyMap(), anyLong());
+	}
+
+	@Test
+	void whenIncrementsAreFlushedThenTheyAreAppliedAsOneDeltaPerBeer() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+		stockEngine.increment(beerDTO.getId(), 5);
+		stockEngine.increment(beerDTO.getId(), 7);
+
+		//when
+		stockEngine.flush();
+		stockEngine.flush();
+
+		//then
+		verify(beerStockUpdater).applyFlushedIncrements(Collections.singletonMap(beerDTO.getId(), 12), 2L);
+		verify(beerCache).evictIds(Collections.singleton(beerDTO.getId()));
+	}
+
+	@Test
+	void whenConcurrentIncrementsExceedMaxThenOnlyThoseThatFitAreAccepted() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Callable<Boolean>> increments = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			increments.add(() -> {
+				try {
+					stockEngine.increment(beerDTO.getId(), 1);
+					return true;
+				} catch (BeerStockExceededException e) {
+					return false;
+				}
+			});
+		}
+
+		//when
+		int accepted = 0;
+		for (Future<Boolean> result : executor.invokeAll(increments)) {
+			accepted += result.get() ? 1 : 0;
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		//then
+		assertThat(accepted, is(equalTo(40)));
+		assertThat(stockEngine.withCurrentStock(beerDTO).getQuantity(), is(equalTo(50)));
+	}
+
+	@Test
+	void whenUnknownBeerIsIncrementedThenNotFoundExceptionIsThrown() {
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.empty());
+
+		assertThrows(BeerNotFoundException.class, () -> stockEngine.increment(beerDTO.getId(), 1));
+	}
+
+	@Test
+	void whenEngineRestartsWithoutFlushingThenLoggedIncrementsAreApplied() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+		stockEngine.increment(beerDTO.getId(), 3);
+		stockEngine.increment(beerDTO.getId(), 4);
+		// a crash: the engine is never flushed, only the log outlives it
+
+		//when
+		StockCounterEngine restarted = startEngine();
+
+		//then
+		verify(beerStockUpdater).applyFlushedIncrements(Collections.singletonMap(beerDTO.getId(), 7), 2L);
+		restarted.close();
+	}
+
+	@Test
+	void whenExclusiveIsTakenThenPendingIncrementsAreFlushedFirst() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+		stockEngine.increment(beerDTO.getId(), 2);
+
+		//when
+		try (StockCounterEngine.Exclusive ignored = stockEngine.exclusive()) {
+			verify(beerStockUpdater).applyFlushedIncrements(eq(Collections.singletonMap(beerDTO.getId(), 2)), anyLong());
+		}
+
+		//then
+		assertThat(stockEngine.withCurrentStock(beerDTO).getQuantity(), is(equalTo(beerDTO.getQuantity())));
+	}
+
+	@Test
+	void whenLogCannotBeSyncedThenTheIncrementIsTakenBackSoARetryAppliesItOnce() throws Exception {
+		//given
+		when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(BeerMapper.INSTANCE.toModel(beerDTO)));
+		Path failingDirectory = walDirectory.resolve("failing");
+		StockWriteAheadLog failingLog = spy(new StockWriteAheadLog(failingDirectory, true));
+		doThrow(new IOException("disk full")).doCallRealMethod().when(failingLog).sync(anyLong());
+		StockCounterEngine failingEngine = new StockCounterEngine(beerRepository, beerStockUpdater, beerCache, failingLog);
+		failingEngine.start();
+
+		//when
+		assertThrows(UncheckedIOException.class, () -> failingEngine.increment(beerDTO.getId(), 5));
+		BeerDTO retriedBeer = failingEngine.increment(beerDTO.getId(), 5);
+		// a crash: the engine is never flushed, only the log outlives it
+		StockCounterEngine restarted = new StockCounterEngine(beerRepository, beerStockUpdater, beerCache,
+				new StockWriteAheadLog(failingDirectory, true));
+		restarted.start();
+
+		//then
+		assertThat(retriedBeer.getQuantity(), is(equalTo(15)));
+		verify(beerStockUpdater).applyFlushedIncrements(Collections.singletonMap(beerDTO.getId(), 5), 3L);
+		restarted.close();
+	}
+
+	private StockCounterEngine startEngine() throws IOException {
+		StockCounterEngine engine = new StockCounterEngine(beerRepository, beerStockUpdater, beerCache,
+				new StockWriteAheadLog(walDirectory, true));
+		engine.start();
+		return engine;
+	}
+}
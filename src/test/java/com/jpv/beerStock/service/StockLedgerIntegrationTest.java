@@ -0,0 +1,164 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.StockHistoryPointDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.dto.StockReservationDTO;
+import com.jpv.beerStock.entity.StockLedgerEntry;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.enums.StockHistoryGranularity;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.StockLedgerEntryRepository;
+import com.jpv.beerStock.repositories.StockLedgerRollupRepository;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.StockLedger;
+
+//Teste de integração: movimentações gravadas no ledger pelo flush e compactadas em rollups por hora e por dia
+@SpringBootTest(properties = {
+		"beerstock.ledger.enabled=true",
+		"beerstock.ledger.flush-interval-ms=3600000",
+		"beerstock.ledger.compaction-interval-ms=3600000",
+		"beerstock.ledger.batch-size=2",
+		"beerstock.ledger.raw-retention=7d",
+		"beerstock.ledger.hourly-retention=90d"
+})
+public class StockLedgerIntegrationTest {
+
+	private static final Long LEDGER_BEER_ID = 424_242L;
+	private static final Instant NOW = Instant.parse("2026-06-15T12:30:00Z");
+
+	// a scheduled compaction on the wall clock would fold the test's rollups while it runs
+	@TestConfiguration
+	static class FixedClock {
+
+		@Bean
+		@Primary
+		Clock fixedClock() {
+			return Clock.fixed(NOW, ZoneOffset.UTC);
+		}
+	}
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private StockLedger stockLedger;
+
+	@Autowired
+	private StockLedgerEntryRepository entryRepository;
+
+	@Autowired
+	private StockLedgerRollupRepository rollupRepository;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	@AfterEach
+	void tearDown() {
+		stockLedger.flush();
+		entryRepository.deleteAll();
+		rollupRepository.deleteAll();
+		beerRepository.deleteAll();
+	}
+
+	@Test
+	void whenStockMovesThenEachCommittedMovementIsRecordedOnFlush() throws Exception {
+		//given
+		BeerDTO beer = beerService.createBeer(new BeerDTO(null, "Ledger Stout", "Ambev", 100, 10, BeerType.STOUT));
+		beerService.increment(beer.getId(), 5);
+		beerService.decrement(beer.getId(), 3);
+		StockReservationDTO reservation = beerService.reserve(beer.getId(), 2, 60);
+		beerService.confirmReservation(reservation.getId());
+		beerService.applyStockMovements(Collections.singletonList(new StockMovementDTO(beer.getId(), 4)));
+
+		//when
+		int written = stockLedger.flush();
+		List<StockHistoryPointDTO> history = stockLedger.history(beer.getId(), Instant.EPOCH, NOW.plusSeconds(1), 100);
+
+		//then
+		assertThat(written, is(equalTo(4)));
+		assertThat(history.stream().map(StockHistoryPointDTO::getDelta).collect(Collectors.toList()), contains(5L, -3L, -2L, 4L));
+		assertThat(history.stream().map(StockHistoryPointDTO::getQuantity).collect(Collectors.toList()), contains(15, 12, 10, null));
+		assertThat(history.get(0).getGranularity(), is(StockHistoryGranularity.MOVEMENT));
+	}
+
+	@Test
+	void whenMovementsOutliveTheirRetentionThenCompactionRollsThemUpByHourAndByDay() {
+		//given
+		Instant lastWeek = NOW.minus(Duration.ofDays(8)).truncatedTo(ChronoUnit.HOURS);
+		Instant lastSeason = NOW.minus(Duration.ofDays(100)).truncatedTo(ChronoUnit.DAYS);
+		entryRepository.saveAll(Arrays.asList(
+				entry(3, lastSeason.plus(Duration.ofHours(1))),
+				entry(-1, lastSeason.plus(Duration.ofHours(5))),
+				entry(10, lastWeek.plus(Duration.ofMinutes(5))),
+				entry(-4, lastWeek.plus(Duration.ofMinutes(40))),
+				entry(2, lastWeek.plus(Duration.ofMinutes(70))),
+				entry(7, NOW.minus(Duration.ofDays(1)))));
+
+		//when
+		int folded = stockLedger.compact(NOW);
+		List<StockHistoryPointDTO> history = stockLedger.history(LEDGER_BEER_ID, Instant.EPOCH, NOW, 100);
+
+		//then
+		assertThat(folded, is(equalTo(5 + 2)));
+		assertThat(entryRepository.count(), is(equalTo(1L)));
+		assertThat(history.stream().map(StockHistoryPointDTO::getGranularity).collect(Collectors.toList()), contains(
+				StockHistoryGranularity.DAY, StockHistoryGranularity.HOUR, StockHistoryGranularity.HOUR, StockHistoryGranularity.MOVEMENT));
+		assertThat(history.get(0).getAt(), is(equalTo(lastSeason)));
+		assertThat(history.get(0).getMovements(), is(equalTo(2L)));
+		assertThat(history.get(0).getDelta(), is(equalTo(2L)));
+		assertThat(history.get(1).getAt(), is(equalTo(lastWeek)));
+		assertThat(history.get(1).getUnitsIn(), is(equalTo(10L)));
+		assertThat(history.get(1).getUnitsOut(), is(equalTo(4L)));
+		assertThat(history.get(1).getQuantity(), is(nullValue()));
+		assertThat(history.get(2).getDelta(), is(equalTo(2L)));
+		assertThat(history.get(3).getDelta(), is(equalTo(7L)));
+	}
+
+	@Test
+	void whenLateMovementsAreCompactedThenTheyAddToTheExistingRollup() {
+		//given
+		Instant lastWeek = NOW.minus(Duration.ofDays(8)).truncatedTo(ChronoUnit.HOURS);
+		entryRepository.save(entry(6, lastWeek.plus(Duration.ofMinutes(10))));
+		stockLedger.compact(NOW);
+		entryRepository.save(entry(-2, lastWeek.plus(Duration.ofMinutes(20))));
+
+		//when
+		stockLedger.compact(NOW);
+		List<StockHistoryPointDTO> history = stockLedger.history(LEDGER_BEER_ID, lastWeek, lastWeek.plus(Duration.ofHours(1)), 100);
+
+		//then
+		assertThat(rollupRepository.count(), is(equalTo(1L)));
+		assertThat(history.size(), is(equalTo(1)));
+		assertThat(history.get(0).getMovements(), is(equalTo(2L)));
+		assertThat(history.get(0).getDelta(), is(equalTo(4L)));
+	}
+
+	private static StockLedgerEntry entry(int delta, Instant movedAt) {
+		return new StockLedgerEntry(null, LEDGER_BEER_ID, delta, null, movedAt);
+	}
+}
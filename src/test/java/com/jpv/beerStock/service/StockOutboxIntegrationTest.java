@@ -0,0 +1,177 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jpv.beerStock.dto.BeerDTO;
+import com.jpv.beerStock.dto.BeerEventDTO;
+import com.jpv.beerStock.dto.StockMovementDTO;
+import com.jpv.beerStock.entity.Beer;
+import com.jpv.beerStock.entity.OutboxEvent;
+import com.jpv.beerStock.enums.BeerEventType;
+import com.jpv.beerStock.enums.BeerType;
+import com.jpv.beerStock.exceptions.BeerNotFoundException;
+import com.jpv.beerStock.exceptions.BeerStockExceededException;
+import com.jpv.beerStock.repositories.BeerRepository;
+import com.jpv.beerStock.repositories.OutboxEventRepository;
+import com.jpv.beerStock.services.BeerService;
+import com.jpv.beerStock.services.LocalMessageBroker;
+import com.jpv.beerStock.services.OutboxSink;
+import com.jpv.beerStock.services.StockOutbox;
+
+//Teste de integração: eventos gravados no outbox junto com a cerveja e entregues pelo relay ao broker local
+@SpringBootTest(properties = {
+		"beerstock.outbox.enabled=true",
+		"beerstock.outbox.relay-interval-ms=3600000",
+		"beerstock.outbox.batch-size=2",
+		"beerstock.outbox.local-capacity=4"
+})
+public class StockOutboxIntegrationTest {
+
+	private static final long UNKNOWN_BEER_ID = 999_999L;
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private StockOutbox stockOutbox;
+
+	@Autowired
+	private OutboxSink outboxSink;
+
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+
+	@Autowired
+	private BeerRepository beerRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private LocalMessageBroker broker;
+
+	@BeforeEach
+	void setUp() {
+		broker = (LocalMessageBroker) outboxSink;
+	}
+
+	@AfterEach
+	void tearDown() {
+		broker.poll(Integer.MAX_VALUE);
+		outboxRepository.deleteAll();
+		beerRepository.deleteAll();
+	}
+
+	@Test
+	void whenBeerChangesThenItsEventsAreRelayedInOrderAndRemovedFromTheOutbox() throws Exception {
+		//given
+		BeerDTO beer = beerService.createBeer(new BeerDTO(null, "Outbox Stout", "Ambev", 100, 10, BeerType.STOUT));
+		beerService.increment(beer.getId(), 5);
+		beerService.decrement(beer.getId(), 2);
+		beerService.deleteById(beer.getId());
+
+		//when
+		int delivered = stockOutbox.relay();
+
+		//then
+		List<OutboxEvent> received = broker.poll(Integer.MAX_VALUE);
+		assertThat(delivered, is(equalTo(4)));
+		assertThat(received.stream().map(OutboxEvent::getType).collect(Collectors.toList()),
+				contains(BeerEventType.CREATED, BeerEventType.STOCK_CHANGED, BeerEventType.STOCK_CHANGED, BeerEventType.DELETED));
+		assertThat(received.get(1).getPayload(), containsString("\"delta\":5"));
+		assertThat(received.get(2).getPayload(), containsString("\"quantity\":13"));
+		assertThat(outboxRepository.count(), is(equalTo(0L)));
+	}
+
+	@Test
+	void whenChangeIsRejectedOrRolledBackThenNoEventIsWritten() {
+		//given
+		Beer beer = beerRepository.save(new Beer(null, "Outbox Lager", "Ambev", 10, 10, BeerType.LAGER, 0, 0L));
+
+		//when
+		assertThrows(BeerStockExceededException.class, () -> beerService.increment(beer.getId(), 1));
+		assertThrows(BeerNotFoundException.class, () -> beerService.increment(UNKNOWN_BEER_ID, 1));
+		transactionTemplate.execute(status -> {
+			beerService.applyStockMovements(Collections.singletonList(new StockMovementDTO(beer.getId(), -1)));
+			status.setRollbackOnly();
+			return null;
+		});
+
+		//then
+		assertThat(outboxRepository.count(), is(equalTo(0L)));
+		assertThat(beerRepository.findById(beer.getId()).get().getQuantity(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenSinkRejectsABatchThenItsEventsStayUntilTheNextRelay() throws Exception {
+		//given
+		Beer beer = beerRepository.save(new Beer(null, "Outbox Ale", "Ambev", 100, 0, BeerType.ALE, 0, 0L));
+		for (int i = 0; i < 6; i++) {
+			beerService.increment(beer.getId(), 1);
+		}
+
+		//when
+		int deliveredWhileFull = stockOutbox.relay();
+		List<OutboxEvent> firstDelivery = broker.poll(Integer.MAX_VALUE);
+		long pendingWhileFull = outboxRepository.count();
+		int deliveredAfterConsumed = stockOutbox.relay();
+
+		//then
+		assertThat(deliveredWhileFull, is(equalTo(4)));
+		assertThat(firstDelivery.size(), is(equalTo(4)));
+		assertThat(pendingWhileFull, is(equalTo(2L)));
+		assertThat(deliveredAfterConsumed, is(equalTo(2)));
+		assertThat(outboxRepository.count(), is(equalTo(0L)));
+	}
+
+	@Test
+	void whenALowerIdCommitsAfterAHigherOneThenTheRelayWaitsForIt() throws Exception {
+		//given
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		Thread slowWriter = new Thread(() -> transactionTemplate.execute(status -> {
+			stockOutbox.append(new BeerEventDTO(BeerEventType.STOCK_CHANGED, 1L, "Slow Lager", 9, -1));
+			written.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}));
+		slowWriter.start();
+		written.await();
+		transactionTemplate.execute(status -> {
+			stockOutbox.append(new BeerEventDTO(BeerEventType.STOCK_CHANGED, 2L, "Fast Lager", 11, 1));
+			return null;
+		});
+
+		//when
+		int deliveredWhileWriting = stockOutbox.relay();
+		commit.countDown();
+		slowWriter.join();
+		int deliveredAfterCommit = stockOutbox.relay();
+
+		//then
+		assertThat(deliveredWhileWriting, is(equalTo(0)));
+		assertThat(deliveredAfterCommit, is(equalTo(2)));
+		assertThat(broker.poll(Integer.MAX_VALUE).stream().map(OutboxEvent::getBeerId).collect(Collectors.toList()),
+				contains(1L, 2L));
+	}
+}
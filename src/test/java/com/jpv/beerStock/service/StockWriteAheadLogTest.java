@@ -0,0 +1,99 @@
+package com.jpv.beerStock.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jpv.beerStock.services.StockWriteAheadLog;
+
+public class StockWriteAheadLogTest {
+
+	@TempDir
+	Path directory;
+
+	private final List<String> replayed = new ArrayList<>();
+
+	@Test
+	void whenLogIsReopenedThenOnlyRecordsAfterCheckpointAreReplayed() throws IOException {
+		//given
+		StockWriteAheadLog log = new StockWriteAheadLog(directory, true);
+		log.open(0, this::record);
+		log.append(1L, 5);
+		long checkpoint = log.seal();
+		log.append(2L, 3);
+		long last = log.append(1L, 7);
+		log.sync(last);
+		log.close();
+
+		//when
+		StockWriteAheadLog reopened = new StockWriteAheadLog(directory, true);
+		long lastReplayed = reopened.open(checkpoint, this::record);
+
+		//then
+		assertThat(replayed, contains("2:3", "1:7"));
+		assertThat(lastReplayed, is(equalTo(last)));
+		assertThat(reopened.append(3L, 1), is(equalTo(last + 1)));
+		reopened.close();
+	}
+
+	@Test
+	void whenLastRecordIsTornThenItIsIgnored() throws IOException {
+		//given
+		StockWriteAheadLog log = new StockWriteAheadLog(directory, false);
+		log.open(0, this::record);
+		log.append(1L, 5);
+		log.append(1L, 6);
+		log.close();
+		Path segment = segments().get(0);
+		byte[] content = Files.readAllBytes(segment);
+		Files.write(segment, Arrays.copyOf(content, content.length - 5), StandardOpenOption.TRUNCATE_EXISTING);
+
+		//when
+		long lastReplayed = new StockWriteAheadLog(directory, false).open(0, this::record);
+
+		//then
+		assertThat(replayed, contains("1:5"));
+		assertThat(lastReplayed, is(equalTo(1L)));
+	}
+
+	@Test
+	void whenSealedSegmentsAreDeletedThenNothingIsReplayed() throws IOException {
+		//given
+		StockWriteAheadLog log = new StockWriteAheadLog(directory, true);
+		log.open(0, this::record);
+		log.append(1L, 5);
+		log.seal();
+
+		//when
+		log.deleteSealed();
+		log.close();
+
+		//then
+		assertThat(segments(), is(empty()));
+	}
+
+	private void record(long beerId, int delta) {
+		replayed.add(beerId + ":" + delta);
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+}